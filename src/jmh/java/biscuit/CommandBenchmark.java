@@ -0,0 +1,114 @@
+package biscuit;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link Biscuit#execute(String)} for each kind of command on a list of
+ * 10,000 tasks.
+ * <p>
+ * Saves are deferred, so the scores cover parsing, the task list and the
+ * response text but not disk writes. Each adding command is followed by a
+ * {@code delete} of the new task so that the list keeps its size; the score of
+ * those commands therefore includes the delete.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class CommandBenchmark {
+
+    private static final int TASK_COUNT = 10_000;
+
+    @Param({"todo", "deadline", "event", "within", "list", "list-page", "find", "find-limit", "mark",
+        "due", "on", "overlapping"})
+    private String command;
+
+    private Path dataPath;
+    private Biscuit biscuit;
+    private String input;
+    private String undo;
+
+    @Setup
+    public void createBiscuit() throws Exception {
+        dataPath = Files.createTempFile("biscuit-command", ".txt");
+        new Storage(dataPath).save(SyntheticTasks.generate(TASK_COUNT, 42));
+        biscuit = new Biscuit(new Storage(dataPath));
+        biscuit.deferSaves();
+
+        String deleteNew = "delete " + (TASK_COUNT + 1);
+        switch (command) {
+        case "todo":
+            input = "todo read book about benchmarks";
+            undo = deleteNew;
+            break;
+        case "deadline":
+            input = "deadline return book /by 2026-03-15";
+            undo = deleteNew;
+            break;
+        case "event":
+            input = "event project meeting /from 2026-03-15 14:00 /to 2026-03-15 16:00";
+            undo = deleteNew;
+            break;
+        case "within":
+            input = "within submit report /from 2026-03-01 /to 2026-03-31";
+            undo = deleteNew;
+            break;
+        case "list":
+            input = "list";
+            break;
+        case "list-page":
+            input = "list /page 250 /size 20";
+            break;
+        case "find":
+            input = "find report";
+            break;
+        case "find-limit":
+            input = "find report /limit 20";
+            break;
+        case "mark":
+            input = "mark 5000";
+            undo = "unmark 5000";
+            break;
+        case "due":
+            input = "due 2026-03-01 2026-03-07";
+            break;
+        case "on":
+            input = "on 2026-03-15";
+            break;
+        case "overlapping":
+            input = "overlapping 2026-03-01 2026-03-07";
+            break;
+        default:
+            throw new IllegalArgumentException("Unknown command: " + command);
+        }
+    }
+
+    @TearDown
+    public void deleteDataFile() throws Exception {
+        Files.deleteIfExists(dataPath);
+    }
+
+    @Benchmark
+    public String execute() throws BiscuitException {
+        String response = biscuit.execute(input);
+        if (undo != null) {
+            biscuit.execute(undo);
+        }
+        return response;
+    }
+}
@@ -0,0 +1,86 @@
+package biscuit;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares {@link DateFormats} with {@link DateTimeFormatter} on a million
+ * random dates and date-times. Scores are in dates per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class DateParsingBenchmark {
+
+    private static final int COUNT = 1_000_000;
+    private static final DateTimeFormatter DATE_FMT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final DateTimeFormatter DATE_TIME_FMT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    @Param({"fast", "formatter"})
+    private String parser;
+
+    private String[] dates;
+    private String[] dateTimes;
+    private LocalDateTime[] values;
+
+    @Setup
+    public void generateDates() {
+        Random random = new Random(42);
+        LocalDateTime first = LocalDate.of(2026, 1, 1).atStartOfDay();
+        dates = new String[COUNT];
+        dateTimes = new String[COUNT];
+        values = new LocalDateTime[COUNT];
+        for (int i = 0; i < COUNT; i++) {
+            values[i] = first.plusMinutes(random.nextInt(730 * 24 * 60));
+            dates[i] = values[i].format(DATE_FMT);
+            dateTimes[i] = values[i].format(DATE_TIME_FMT);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    public void parseDate(Blackhole blackhole) {
+        boolean isFast = parser.equals("fast");
+        for (String date : dates) {
+            blackhole.consume(isFast ? DateFormats.parseDate(date) : LocalDate.parse(date, DATE_FMT));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    public void parseDateTime(Blackhole blackhole) {
+        boolean isFast = parser.equals("fast");
+        for (String dateTime : dateTimes) {
+            blackhole.consume(isFast
+                    ? DateFormats.parseDateTime(dateTime)
+                    : LocalDateTime.parse(dateTime, DATE_TIME_FMT));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    public void formatDateTime(Blackhole blackhole) {
+        boolean isFast = parser.equals("fast");
+        for (LocalDateTime value : values) {
+            blackhole.consume(isFast ? DateFormats.formatDateTime(value) : value.format(DATE_TIME_FMT));
+        }
+    }
+}
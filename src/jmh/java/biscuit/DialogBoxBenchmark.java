@@ -0,0 +1,62 @@
+package biscuit;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import javafx.application.Platform;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.control.Label;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.layout.HBox;
+
+/**
+ * Measures the cost of building one chat bubble: parsing the FXML template that
+ * {@link DialogBox} used to load per message, against building it in code.
+ * <p>
+ * Starts the JavaFX toolkit, so it needs a display (or a headless glass platform).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DialogBoxBenchmark {
+
+    private static final String MESSAGE = "Added: [D][ ] EE draft (by: Feb 10 2026)";
+
+    private Image image;
+
+    @Setup(Level.Trial)
+    public void startToolkit() {
+        try {
+            Platform.startup(() -> { });
+        } catch (IllegalStateException e) {
+            // already started by an earlier trial in this JVM
+        }
+        image = new Image(DialogBoxBenchmark.class.getResourceAsStream("/images/DaBiscuit.jpg"));
+    }
+
+    @Benchmark
+    public HBox parseFxmlTemplate() throws IOException {
+        HBox box = new HBox();
+        FXMLLoader fxmlLoader = new FXMLLoader(DialogBoxBenchmark.class.getResource("/view/DialogBox.fxml"));
+        fxmlLoader.setRoot(box);
+        fxmlLoader.load();
+        ((Label) fxmlLoader.getNamespace().get("dialog")).setText(MESSAGE);
+        ((ImageView) fxmlLoader.getNamespace().get("displayPicture")).setImage(image);
+        return box;
+    }
+
+    @Benchmark
+    public DialogBox buildInCode() {
+        return DialogBox.getBiscuitDialog(MESSAGE, image);
+    }
+}
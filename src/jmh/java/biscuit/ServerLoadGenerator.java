@@ -0,0 +1,130 @@
+package biscuit;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Drives a running {@link BiscuitServer} with many concurrent clients and reports
+ * throughput and latency percentiles.
+ * <p>
+ * Usage: {@code ServerLoadGenerator [port] [clients] [seconds] [writePercent]}.
+ * Each client sends read commands ({@code find}, a {@code list} page, {@code on})
+ * and, for the given share of requests, adds a todo.
+ */
+public class ServerLoadGenerator {
+
+    private static final String[] READS = {
+        "find meeting /limit 20", "list /page 1 /size 20", "on 2026-03-15", "find report /limit 20",
+    };
+
+    public static void main(String[] args) throws Exception {
+        int port = (args.length > 0) ? Integer.parseInt(args[0]) : 8420;
+        int clients = (args.length > 1) ? Integer.parseInt(args[1]) : 32;
+        int seconds = (args.length > 2) ? Integer.parseInt(args[2]) : 10;
+        int writePercent = (args.length > 3) ? Integer.parseInt(args[3]) : 10;
+
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        List<Future<ClientResult>> futures = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            futures.add(pool.submit(new Client(port, i, deadline, writePercent)));
+        }
+
+        long requests = 0;
+        long busy = 0;
+        List<long[]> latencies = new ArrayList<>();
+        for (Future<ClientResult> future : futures) {
+            ClientResult result = future.get();
+            requests += result.count;
+            busy += result.busyCount;
+            latencies.add(Arrays.copyOf(result.latencies, result.count));
+        }
+        pool.shutdown();
+
+        long[] all = latencies.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        System.out.printf("clients=%d seconds=%d writes=%d%%%n", clients, seconds, writePercent);
+        System.out.printf("requests=%d throughput=%.0f req/s busy=%d%n", requests, (double) requests / seconds, busy);
+        System.out.printf("latency p50=%.3f ms p99=%.3f ms max=%.3f ms%n",
+                percentile(all, 50), percentile(all, 99), percentile(all, 100));
+    }
+
+    private static double percentile(long[] sorted, double percent) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percent / 100 * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    private static final class ClientResult {
+        private long[] latencies = new long[1024];
+        private int count;
+        private long busyCount;
+
+        private void record(long nanos) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+        }
+    }
+
+    private static final class Client implements Callable<ClientResult> {
+        private final int port;
+        private final int id;
+        private final long deadline;
+        private final int writePercent;
+
+        private Client(int port, int id, long deadline, int writePercent) {
+            this.port = port;
+            this.id = id;
+            this.deadline = deadline;
+            this.writePercent = writePercent;
+        }
+
+        @Override
+        public ClientResult call() throws IOException {
+            ClientResult result = new ClientResult();
+            Random random = new Random(id);
+            try (Socket socket = new Socket("localhost", port);
+                    BufferedReader in = new BufferedReader(
+                            new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                    Writer out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8)) {
+                socket.setTcpNoDelay(true);
+                for (int n = 0; System.nanoTime() < deadline; n++) {
+                    String command = (random.nextInt(100) < writePercent)
+                            ? "todo load test " + id + "-" + n
+                            : READS[random.nextInt(READS.length)];
+
+                    long start = System.nanoTime();
+                    out.write(command + "\n");
+                    out.flush();
+                    String first = in.readLine();
+                    for (String line = first; line != null && !line.isEmpty(); line = in.readLine()) {
+                        // read the rest of the response
+                    }
+                    result.record(System.nanoTime() - start);
+                    if (BiscuitServer.BUSY_MESSAGE.equals(first)) {
+                        result.busyCount++;
+                    }
+                }
+                out.write("bye\n");
+                out.flush();
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package biscuit;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Times how long Biscuit takes to start, in fresh JVMs, for the GUI and for the
+ * headless entry point with and without a class-data-sharing archive.
+ * <p>
+ * Usage: {@code StartupProbe [runs] [headlessJar] [cdsArchive]}. Each launch runs
+ * in an empty working directory and is timed from process start to exit: the GUI
+ * exits as soon as its window is shown, and the headless launches run a batch of
+ * just {@code bye}. The GUI needs a display and is skipped if it fails to start.
+ */
+public class StartupProbe {
+
+    public static void main(String[] args) throws Exception {
+        int runs = (args.length > 0) ? Integer.parseInt(args[0]) : 10;
+        String classpath = System.getProperty("java.class.path");
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+
+        probe("gui", runs, List.of(java, "-Dbiscuit.exitAfterStartup=true", "-cp", classpath, "biscuit.Launcher"));
+        probe("headless", runs, List.of(java, "-cp", classpath, "biscuit.Launcher", "--batch"));
+        if (args.length > 2 && new File(args[1]).isFile() && new File(args[2]).isFile()) {
+            probe("headless-jar", runs, List.of(java, "-jar", args[1], "--batch"));
+            probe("headless-jar+cds", runs, List.of(java, "-XX:SharedArchiveFile=" + args[2], "-jar", args[1],
+                    "--batch"));
+        }
+    }
+
+    private static void probe(String name, int runs, List<String> command) throws Exception {
+        long[] millis = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            long elapsed = launch(command);
+            if (elapsed < 0) {
+                System.out.printf("%-18s failed to start, skipped%n", name);
+                return;
+            }
+            millis[i] = elapsed;
+        }
+        Arrays.sort(millis);
+        System.out.printf("%-18s runs=%d min=%d ms median=%d ms max=%d ms%n", name, runs, millis[0],
+                millis[runs / 2], millis[runs - 1]);
+    }
+
+    /**
+     * Runs the command to completion in a fresh directory.
+     *
+     * @return Wall-clock milliseconds, or -1 if the process failed.
+     */
+    private static long launch(List<String> command) throws IOException, InterruptedException {
+        Path workingDir = Files.createTempDirectory("biscuit-startup");
+        ProcessBuilder builder = new ProcessBuilder(new ArrayList<>(command))
+                .directory(workingDir.toFile())
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.DISCARD);
+
+        long start = System.nanoTime();
+        Process process = builder.start();
+        try (OutputStream in = process.getOutputStream()) {
+            in.write("bye\n".getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            // the GUI does not read standard input and may already have exited
+        }
+        int exitCode = process.waitFor();
+        long elapsed = (System.nanoTime() - start) / 1_000_000;
+        deleteRecursively(workingDir);
+        return (exitCode == 0) ? elapsed : -1;
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+}
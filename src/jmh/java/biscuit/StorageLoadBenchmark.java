@@ -0,0 +1,57 @@
+package biscuit;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures startup load time of {@link Storage#load()} for the sequential and the
+ * parallel (chunked, memory-mapped) load paths.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+public class StorageLoadBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    private int lines;
+
+    @Param({"sequential", "parallel"})
+    private String loadPath;
+
+    private Path dataPath;
+
+    @Setup(Level.Trial)
+    public void writeDataFile() throws Exception {
+        dataPath = Files.createTempFile("biscuit-load", ".txt");
+        new Storage(dataPath).save(SyntheticTasks.generate(lines, 42));
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteDataFile() throws Exception {
+        Files.deleteIfExists(dataPath);
+    }
+
+    @Benchmark
+    public List<Task> load() throws BiscuitException {
+        Storage storage = new Storage(dataPath);
+        storage.setParallelLoadMinBytes(loadPath.equals("parallel") ? 0 : Long.MAX_VALUE);
+        return storage.load();
+    }
+}
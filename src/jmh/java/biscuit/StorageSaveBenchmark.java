@@ -0,0 +1,57 @@
+package biscuit;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures a full snapshot {@link Storage#save(List)} in both data file formats.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+public class StorageSaveBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    private int lines;
+
+    @Param({"TEXT", "BINARY"})
+    private Storage.Format format;
+
+    private List<Task> tasks;
+    private Path dataPath;
+
+    @Setup(Level.Trial)
+    public void generateTasks() throws Exception {
+        tasks = SyntheticTasks.generate(lines, 42);
+        dataPath = Files.createTempFile("biscuit-save", ".txt");
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteDataFile() throws Exception {
+        Files.deleteIfExists(dataPath);
+    }
+
+    @Benchmark
+    public void save() throws BiscuitException {
+        Storage storage = new Storage(dataPath);
+        storage.setFormat(format);
+        storage.save(tasks);
+    }
+}
@@ -0,0 +1,71 @@
+package biscuit;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates reproducible task lists for benchmarks.
+ */
+public class SyntheticTasks {
+
+    private static final String[] WORDS = {
+        "read", "book", "return", "project", "meeting", "draft", "report", "buy", "milk", "call",
+        "review", "tutorial", "lecture", "gym", "dinner", "friends", "submit", "assignment", "plan", "trip",
+    };
+    private static final LocalDate FIRST_DAY = LocalDate.of(2026, 1, 1);
+
+    /**
+     * Returns {@code count} tasks of all four types with random descriptions, dates
+     * and done flags. The same seed always produces the same tasks.
+     *
+     * @param count Number of tasks to generate.
+     * @param seed  Random seed.
+     * @return Generated tasks.
+     */
+    public static List<Task> generate(int count, long seed) {
+        Random random = new Random(seed);
+        List<Task> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String description = description(random) + " " + i;
+            LocalDate day = FIRST_DAY.plusDays(random.nextInt(730));
+
+            Task task;
+            switch (random.nextInt(4)) {
+            case 0:
+                task = new Todo(description);
+                break;
+            case 1:
+                task = new Deadline(description, day);
+                break;
+            case 2:
+                LocalDateTime from = day.atTime(random.nextInt(20), 30);
+                task = new Event(description, from, from.plusHours(1 + random.nextInt(3)));
+                break;
+            default:
+                task = new DoWithinPeriodTask(description, day, day.plusDays(random.nextInt(30)));
+                break;
+            }
+
+            if (random.nextBoolean()) {
+                task.mark();
+            }
+            tasks.add(task);
+        }
+        return tasks;
+    }
+
+    private static String description(Random random) {
+        int wordCount = 2 + random.nextInt(4);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < wordCount; i++) {
+            if (i > 0) {
+                sb.append(' ');
+            }
+            sb.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,51 @@
+package biscuit;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link TaskList#find(String)} for keywords that match many tasks, a
+ * single task, no task, and a keyword too short for the trigram index.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class TaskListFindBenchmark {
+
+    @Param({"10000", "100000"})
+    private int size;
+
+    /** Common word, a task number (rare), no match, and a two-character scan. */
+    @Param({"meeting", "4242", "xylophone", "gy"})
+    private String keyword;
+
+    private TaskList tasks;
+
+    @Setup
+    public void buildList() {
+        tasks = new TaskList(SyntheticTasks.generate(size, 42));
+    }
+
+    @Benchmark
+    public List<Task> find() {
+        return tasks.find(keyword);
+    }
+
+    @Benchmark
+    public List<Task> findFirstPage() {
+        return tasks.find(keyword, 0, 20);
+    }
+}
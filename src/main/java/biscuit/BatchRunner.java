@@ -0,0 +1,198 @@
+package biscuit;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs a script of commands against a {@link Biscuit} without prompts.
+ * <p>
+ * Each non-blank line is one command. Responses are written to a buffered
+ * output, and saving is deferred so that the whole script costs a single save
+ * (or one every {@code saveEvery} commands). Failed commands do not stop the
+ * script; they are collected and reported in a summary at the end.
+ */
+public class BatchRunner {
+
+    private static final int MAX_REPORTED_ERRORS = 50;
+
+    private final Biscuit biscuit;
+    private final int saveEvery;
+    private final List<String> errors = new ArrayList<>();
+    private int errorCount;
+    private int commandCount;
+
+    /**
+     * Constructs a runner that executes commands on the given chatbot.
+     *
+     * @param biscuit Chatbot to run the commands on.
+     * @param saveEvery Number of commands between saves, or 0 to save only at the end.
+     */
+    public BatchRunner(Biscuit biscuit, int saveEvery) {
+        assert biscuit != null : "Biscuit should not be null";
+        assert saveEvery >= 0 : "Save interval should not be negative";
+
+        this.biscuit = biscuit;
+        this.saveEvery = saveEvery;
+    }
+
+    /**
+     * Executes every command read from {@code in} until the input ends or
+     * {@code bye} is read, then saves any remaining changes.
+     *
+     * @param in Source of commands, one per line.
+     * @param out Destination of the responses.
+     * @throws BiscuitException If the input cannot be read or the tasks cannot be saved.
+     */
+    public void run(BufferedReader in, PrintWriter out) throws BiscuitException {
+        biscuit.deferSaves();
+        try {
+            int lineNumber = 0;
+            String line;
+            while ((line = in.readLine()) != null) {
+                lineNumber++;
+                String input = line.trim();
+                if (input.isEmpty()) {
+                    continue;
+                }
+
+                commandCount++;
+                try {
+                    out.println(biscuit.execute(input));
+                } catch (BiscuitException e) {
+                    out.println(e.getMessage());
+                    recordError(lineNumber, input, e.getMessage());
+                }
+
+                if (biscuit.isExit(input)) {
+                    break;
+                }
+                if (saveEvery > 0 && commandCount % saveEvery == 0) {
+                    biscuit.saveDeferredChanges();
+                }
+            }
+        } catch (IOException e) {
+            throw new BiscuitException("Failed to read commands: " + e.getMessage());
+        } finally {
+            out.flush();
+            // saves the commands run so far even if reading stopped part-way
+            biscuit.resumeSaves();
+        }
+    }
+
+    /**
+     * Returns the number of commands executed by the last {@link #run}.
+     *
+     * @return Number of non-blank lines executed.
+     */
+    public int getCommandCount() {
+        return commandCount;
+    }
+
+    /**
+     * Returns the number of commands that failed.
+     *
+     * @return Number of failed commands.
+     */
+    public int getErrorCount() {
+        return errorCount;
+    }
+
+    /**
+     * Returns a summary of the failed commands, listing at most the first
+     * {@value #MAX_REPORTED_ERRORS} of them.
+     *
+     * @return Human-readable error summary.
+     */
+    public String getErrorSummary() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(errorCount).append(" of ").append(commandCount).append(" commands failed.");
+        for (String error : errors) {
+            sb.append(System.lineSeparator()).append(error);
+        }
+        if (errorCount > errors.size()) {
+            sb.append(System.lineSeparator())
+                    .append("... and ").append(errorCount - errors.size()).append(" more.");
+        }
+        return sb.toString();
+    }
+
+    private void recordError(int lineNumber, String input, String message) {
+        errorCount++;
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add("line " + lineNumber + ": " + input + " -> " + message);
+        }
+    }
+
+    /**
+     * Runs a batch as configured by command-line arguments of the form
+     * {@code [--batch [file]] [--save-every N]}. Commands are read from standard
+     * input when no file is given. Responses go to standard output and the error
+     * summary, if any, to standard error.
+     *
+     * @param biscuit Chatbot to run the commands on.
+     * @param args Command-line arguments.
+     * @return {@code true} if every command succeeded.
+     * @throws BiscuitException If the arguments are invalid, or reading or saving fails.
+     */
+    public static boolean runFromArgs(Biscuit biscuit, String[] args) throws BiscuitException {
+        Path file = null;
+        int saveEvery = 0;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+            case "--batch":
+                if (i + 1 < args.length && !args[i + 1].startsWith("--")) {
+                    file = Path.of(args[++i]);
+                }
+                break;
+            case "--save-every":
+                if (i + 1 >= args.length) {
+                    throw new BiscuitException("Usage: --save-every <number of commands>");
+                }
+                saveEvery = parseSaveEvery(args[++i]);
+                break;
+            default:
+                throw new BiscuitException("Unknown argument: " + args[i]);
+            }
+        }
+
+        PrintWriter out = new PrintWriter(new BufferedWriter(
+                new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16), false);
+        BatchRunner runner = new BatchRunner(biscuit, saveEvery);
+        try (BufferedReader in = file == null
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                : Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            runner.run(in, out);
+        } catch (IOException e) {
+            throw new BiscuitException("Failed to open " + file + ": " + e.getMessage());
+        } finally {
+            biscuit.shutdown();
+        }
+
+        if (runner.getErrorCount() > 0) {
+            System.err.println(runner.getErrorSummary());
+            return false;
+        }
+        return true;
+    }
+
+    private static int parseSaveEvery(String raw) throws BiscuitException {
+        try {
+            int value = Integer.parseInt(raw);
+            if (value < 0) {
+                throw new NumberFormatException();
+            }
+            return value;
+        } catch (NumberFormatException e) {
+            throw new BiscuitException("--save-every must be a non-negative number, got: " + raw);
+        }
+    }
+}
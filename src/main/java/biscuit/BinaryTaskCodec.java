@@ -0,0 +1,316 @@
+package biscuit;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Encodes and decodes tasks in Biscuit's compact binary data file format.
+ * <p>
+ * Layout (big-endian):
+ * <ul>
+ * <li>header: magic {@code "BSCT"}, version byte, task count ({@code int}), then
+ * the id the next new task gets as a varint</li>
+ * <li>per task: flags byte (bits 0-1 type: 0 todo, 1 deadline, 2 event, 3 period;
+ * bit 2 done), the task id as a varint (0 if unassigned), type-specific dates,
+ * then the description as a varint byte length followed by UTF-8 bytes</li>
+ * <li>deadline: {@code by} as epoch day ({@code int})</li>
+ * <li>event: {@code from} and {@code to} as epoch minutes in UTC ({@code int})</li>
+ * <li>period: {@code start} and {@code end} as epoch days ({@code int})</li>
+ * </ul>
+ * Version 1 files, written before tasks had ids, have no id field and are still
+ * read; their tasks are given ids by {@link Storage}. Version 2 files have task ids
+ * but no next id in the header.
+ */
+final class BinaryTaskCodec {
+
+    private static final byte[] MAGIC = {'B', 'S', 'C', 'T'};
+    private static final byte VERSION = 3;
+    private static final byte VERSION_WITHOUT_NEXT_ID = 2;
+    private static final byte VERSION_WITHOUT_IDS = 1;
+    /** Length of the longest header: magic, version, task count and a 64-bit varint. */
+    static final int MAX_HEADER_BYTES = 4 + 1 + 4 + 10;
+
+    private static final int TYPE_TODO = 0;
+    private static final int TYPE_DEADLINE = 1;
+    private static final int TYPE_EVENT = 2;
+    private static final int TYPE_PERIOD = 3;
+    private static final int TYPE_MASK = 0b11;
+    private static final int DONE_BIT = 0b100;
+
+    private BinaryTaskCodec() {
+    }
+
+    /**
+     * Returns whether the given file content starts with the binary format header.
+     *
+     * @param prefix First bytes of a data file.
+     * @param length Number of valid bytes in {@code prefix}.
+     * @return True if the content is in the binary format.
+     */
+    static boolean hasMagic(byte[] prefix, int length) {
+        if (length < MAGIC.length) {
+            return false;
+        }
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (prefix[i] != MAGIC[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Writes the tasks in the binary format.
+     *
+     * @param tasks  Tasks to encode.
+     * @param nextId Id the next new task gets.
+     * @param out    Stream to write to. It is flushed but not closed.
+     * @throws IOException      If writing fails.
+     * @throws BiscuitException If a task cannot be represented in the binary format.
+     */
+    static void encode(List<Task> tasks, long nextId, OutputStream out) throws IOException, BiscuitException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.write(MAGIC);
+        data.writeByte(VERSION);
+        data.writeInt(tasks.size());
+        writeVarLong(data, nextId);
+
+        for (Task task : tasks) {
+            int done = task.isDone() ? DONE_BIT : 0;
+            if (task instanceof Todo) {
+                data.writeByte(TYPE_TODO | done);
+                writeVarLong(data, task.getId());
+            } else if (task instanceof Deadline) {
+                data.writeByte(TYPE_DEADLINE | done);
+                writeVarLong(data, task.getId());
+                data.writeInt(toEpochDay(((Deadline) task).getBy()));
+            } else if (task instanceof Event) {
+                Event e = (Event) task;
+                data.writeByte(TYPE_EVENT | done);
+                writeVarLong(data, task.getId());
+                data.writeInt(toEpochMinute(e.getFrom()));
+                data.writeInt(toEpochMinute(e.getTo()));
+            } else if (task instanceof DoWithinPeriodTask) {
+                DoWithinPeriodTask p = (DoWithinPeriodTask) task;
+                data.writeByte(TYPE_PERIOD | done);
+                writeVarLong(data, task.getId());
+                data.writeInt(toEpochDay(p.getStart()));
+                data.writeInt(toEpochDay(p.getEnd()));
+            } else {
+                throw new BiscuitException("Unsupported task type: " + task.getClass().getSimpleName());
+            }
+
+            byte[] description = task.getDescription().getBytes(StandardCharsets.UTF_8);
+            writeVarInt(data, description.length);
+            data.write(description);
+        }
+        data.flush();
+    }
+
+    /**
+     * Reads tasks from binary format content.
+     *
+     * @param bytes Whole data file content, positioned at the header.
+     * @return Decoded tasks in file order, and the next id if the file has one.
+     * @throws BiscuitException If the content is truncated, has an unsupported
+     *                          version, or contains an unknown task type.
+     */
+    static Snapshot decode(ByteBuffer bytes) throws BiscuitException {
+        try {
+            byte[] magic = new byte[MAGIC.length];
+            bytes.get(magic);
+            if (!hasMagic(magic, magic.length)) {
+                throw new BiscuitException("Not a binary data file.");
+            }
+            byte version = bytes.get();
+            if (version != VERSION && version != VERSION_WITHOUT_NEXT_ID && version != VERSION_WITHOUT_IDS) {
+                throw new BiscuitException("Unsupported binary data file version: " + version);
+            }
+
+            int count = bytes.getInt();
+            if (count < 0) {
+                throw new BiscuitException("Corrupted binary data file: negative task count.");
+            }
+            long nextId = (version == VERSION) ? readVarLong(bytes) : 1;
+            List<Task> tasks = new ArrayList<>(Math.min(count, bytes.remaining()));
+            boolean hasIds = version != VERSION_WITHOUT_IDS;
+            for (int i = 0; i < count; i++) {
+                tasks.add(decodeTask(bytes, hasIds));
+            }
+            return new Snapshot(tasks, nextId);
+        } catch (BufferUnderflowException e) {
+            throw new BiscuitException("Corrupted binary data file: unexpected end of file.");
+        }
+    }
+
+    /**
+     * Reads the next id from the header of binary format content, without decoding
+     * the tasks.
+     *
+     * @param header At least the first {@link #MAX_HEADER_BYTES} bytes of the content,
+     *               or all of it if shorter.
+     * @return Id the next new task gets, or 0 if the file was written before it was
+     *         recorded.
+     * @throws BiscuitException If the header is truncated.
+     */
+    static long readNextId(ByteBuffer header) throws BiscuitException {
+        try {
+            header.position(MAGIC.length);
+            byte version = header.get();
+            if (version != VERSION) {
+                return 0;
+            }
+            header.getInt();
+            return readVarLong(header);
+        } catch (BufferUnderflowException e) {
+            throw new BiscuitException("Corrupted binary data file: unexpected end of file.");
+        }
+    }
+
+    private static Task decodeTask(ByteBuffer bytes, boolean hasIds) throws BiscuitException {
+        int flags = bytes.get();
+        int type = flags & TYPE_MASK;
+        long id = hasIds ? readVarLong(bytes) : 0;
+
+        // dates come before the description in the record
+        int first = 0;
+        int second = 0;
+        if (type == TYPE_DEADLINE) {
+            first = bytes.getInt();
+        } else if (type == TYPE_EVENT || type == TYPE_PERIOD) {
+            first = bytes.getInt();
+            second = bytes.getInt();
+        }
+        String description = readString(bytes);
+
+        Task task;
+        switch (type) {
+        case TYPE_TODO:
+            task = new Todo(description);
+            break;
+        case TYPE_DEADLINE:
+            task = new Deadline(description, LocalDate.ofEpochDay(first));
+            break;
+        case TYPE_EVENT:
+            task = new Event(description, fromEpochMinute(first), fromEpochMinute(second));
+            break;
+        default:
+            task = new DoWithinPeriodTask(description, LocalDate.ofEpochDay(first), LocalDate.ofEpochDay(second));
+            break;
+        }
+
+        if ((flags & DONE_BIT) != 0) {
+            task.mark();
+        }
+        if (id != 0) {
+            task.setId(id);
+        }
+        return task;
+    }
+
+    private static String readString(ByteBuffer bytes) throws BiscuitException {
+        int length = readVarInt(bytes);
+        if (length < 0 || length > bytes.remaining()) {
+            throw new BiscuitException("Corrupted binary data file: bad description length.");
+        }
+        String value;
+        if (bytes.hasArray()) {
+            value = new String(bytes.array(), bytes.arrayOffset() + bytes.position(), length,
+                    StandardCharsets.UTF_8);
+            bytes.position(bytes.position() + length);
+        } else {
+            byte[] raw = new byte[length];
+            bytes.get(raw);
+            value = new String(raw, StandardCharsets.UTF_8);
+        }
+        return value;
+    }
+
+    private static void writeVarInt(DataOutputStream data, int value) throws IOException {
+        int remaining = value;
+        while ((remaining & ~0x7F) != 0) {
+            data.writeByte((remaining & 0x7F) | 0x80);
+            remaining >>>= 7;
+        }
+        data.writeByte(remaining);
+    }
+
+    private static int readVarInt(ByteBuffer bytes) throws BiscuitException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = bytes.get();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new BiscuitException("Corrupted binary data file: bad length prefix.");
+    }
+
+    private static void writeVarLong(DataOutputStream data, long value) throws IOException {
+        long remaining = value;
+        while ((remaining & ~0x7FL) != 0) {
+            data.writeByte((int) (remaining & 0x7F) | 0x80);
+            remaining >>>= 7;
+        }
+        data.writeByte((int) remaining);
+    }
+
+    private static long readVarLong(ByteBuffer bytes) throws BiscuitException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = bytes.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                if (value < 0) {
+                    break;
+                }
+                return value;
+            }
+        }
+        throw new BiscuitException("Corrupted binary data file: bad task id.");
+    }
+
+    private static int toEpochDay(LocalDate date) throws BiscuitException {
+        long day = date.toEpochDay();
+        if (day < Integer.MIN_VALUE || day > Integer.MAX_VALUE) {
+            throw new BiscuitException("Date " + date + " is too far from 1970 for the binary format.");
+        }
+        return (int) day;
+    }
+
+    private static int toEpochMinute(LocalDateTime dateTime) throws BiscuitException {
+        long minute = dateTime.toEpochSecond(ZoneOffset.UTC) / 60;
+        if (minute < Integer.MIN_VALUE || minute > Integer.MAX_VALUE) {
+            throw new BiscuitException("Event date " + dateTime + " is too far from 1970 for the binary format.");
+        }
+        return (int) minute;
+    }
+
+    private static LocalDateTime fromEpochMinute(int minute) {
+        return LocalDateTime.ofEpochSecond(minute * 60L, 0, ZoneOffset.UTC);
+    }
+
+    /**
+     * Content of a binary data file.
+     */
+    static final class Snapshot {
+        final List<Task> tasks;
+        /** Id the next new task gets; 1 for files written before it was recorded. */
+        final long nextId;
+
+        private Snapshot(List<Task> tasks, long nextId) {
+            this.tasks = tasks;
+            this.nextId = nextId;
+        }
+    }
+}
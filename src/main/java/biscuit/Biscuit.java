@@ -1,9 +1,25 @@
 package biscuit;
 
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.time.Clock;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.util.Scanner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
 
 /**
  * Entry point of the Biscuit chatbot.
@@ -11,32 +27,184 @@ import java.util.Scanner;
  * Coordinates user interaction ({@link Ui}), command interpretation
  * ({@link Parser}),
  * persistence ({@link Storage}), and task operations ({@link TaskList}).
+ * <p>
+ * A Biscuit may be shared between threads: read-only commands run concurrently,
+ * while commands that change the tasks run one at a time.
+ * <p>
+ * Tasks are loaded on a background thread, so a new Biscuit is ready for input
+ * at once, however large the data file. Until loading finishes, {@code todo}
+ * adds are accepted and queued behind the loaded tasks, {@code help} and
+ * {@code stats} answer immediately, and every other command waits for the load.
+ * Queued todos are told their ids from the header of the data file (see
+ * {@link Storage#readNextId()}); only a data file written before it recorded the
+ * next id makes them wait for the load.
  */
 public class Biscuit {
 
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final Metrics METRICS = Metrics.getInstance();
+    private static final EnumSet<Command> RUNS_WHILE_LOADING = EnumSet.of(Command.TODO, Command.HELP,
+            Command.STATS);
+    // commands whose handlers take the lock themselves, around the part that needs it
+    private static final EnumSet<Command> LOCKS_ITSELF = EnumSet.of(Command.IMPORT);
+
     private Storage storage;
     private TaskList tasks;
     private Ui ui;
+    // todos added before loading finished; null once the tasks are loaded
+    private List<Todo> queuedTodos = new ArrayList<>();
+    // id of the first queued todo; the others follow in queue order
+    private final CompletableFuture<Long> firstQueuedId = new CompletableFuture<>();
+    private final CompletableFuture<Void> loading;
+    private final AtomicReference<String> loadFailure = new AtomicReference<>();
+    // null unless enableReminders() was called
+    private ReminderScheduler reminders;
+    private boolean isDeferringSaves;
+    private boolean hasUnsavedChanges;
+    private final Map<Command, CommandHandler> handlers = new EnumMap<>(Command.class);
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
 
     /**
      * Constructs a Biscuit instance and initializes its dependencies.
      * <p>
-     * Loads tasks from disk using {@link Storage}. If loading fails, starts with an
-     * empty task list.
+     * Starts loading tasks from disk using {@link Storage}. If loading fails, starts
+     * with an empty task list and reports the failure in the next response.
      */
     public Biscuit() {
+        this(new Storage());
+    }
+
+    /**
+     * Constructs a Biscuit instance that persists its tasks through the given storage.
+     *
+     * @param storage Storage to load tasks from and save them to.
+     */
+    public Biscuit(Storage storage) {
+        assert storage != null : "Storage should not be null";
+
         ui = new Ui();
-        storage = new Storage();
+        this.storage = storage;
+        registerHandlers();
+        loading = CompletableFuture.runAsync(this::loadTasks, runnable -> {
+            Thread thread = new Thread(runnable, "biscuit-loader");
+            thread.setDaemon(true);
+            thread.start();
+        });
+    }
 
+    /**
+     * Loads the tasks and the search indices, then appends the todos queued in the
+     * meantime and journals them. Runs on the loader thread.
+     */
+    private void loadTasks() {
         TaskList loaded;
         try {
-            loaded = new TaskList(storage.load());
+            long nextId = storage.readNextId();
+            if (nextId > 0) {
+                firstQueuedId.complete(nextId);
+            }
+            loaded = new TaskList(storage.load(), storage.getNextId());
         } catch (BiscuitException e) {
-            ui.showError(e.getMessage());
-            ui.showError("Starting with an empty task list.");
+            loadFailure.set(e.getMessage() + "\nStarting with an empty task list.");
             loaded = new TaskList();
+        } finally {
+            // does nothing if the header gave the id; must not wait for the write lock below
+            firstQueuedId.complete(storage.getNextId());
+        }
+
+        lock.writeLock().lock();
+        try {
+            tasks = loaded;
+            attachReminders();
+            for (Todo todo : queuedTodos) {
+                tasks.add(todo);
+                try {
+                    persist(() -> storage.appendAdd(todo));
+                } catch (BiscuitException e) {
+                    loadFailure.accumulateAndGet(e.getMessage(),
+                            (earlier, failure) -> (earlier == null) ? failure : earlier + "\n" + failure);
+                }
+            }
+            queuedTodos = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Starts reminding of upcoming events, deadlines and within-period tasks that
+     * are not done; see {@link ReminderScheduler}. The reminders follow every later
+     * change to the tasks, including the tasks still being loaded.
+     *
+     * @param notifier Receives each reminder message, on the reminder thread.
+     */
+    public void enableReminders(Consumer<String> notifier) {
+        enableReminders(Clock.systemDefaultZone(), notifier);
+    }
+
+    /**
+     * Starts reminding of tasks, reading the time from the given clock.
+     *
+     * @param clock    Clock giving the current time and the time zone of task dates.
+     * @param notifier Receives each reminder message, on the reminder thread.
+     */
+    void enableReminders(Clock clock, Consumer<String> notifier) {
+        lock.writeLock().lock();
+        try {
+            assert reminders == null : "Reminders should be enabled only once";
+            reminders = new ReminderScheduler(clock, notifier);
+            attachReminders();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Makes the reminders follow the current task list. Called with the write lock held.
+     * Does nothing until both the reminders are enabled and the tasks are loaded;
+     * whichever comes second attaches them.
+     */
+    private void attachReminders() {
+        if (reminders != null && tasks != null) {
+            tasks.setListener(reminders);
+            reminders.reset(tasks.asList());
         }
-        tasks = loaded;
+    }
+
+    /**
+     * Waits until the tasks are loaded. Must not be called while holding the lock,
+     * which the loader needs to finish.
+     */
+    private void awaitLoad() {
+        loading.join();
+    }
+
+    /**
+     * Maps every {@link Command} to the method that executes it.
+     */
+    private void registerHandlers() {
+        handlers.put(Command.LIST, this::handleList);
+        handlers.put(Command.TODO, this::handleTodo);
+        handlers.put(Command.DEADLINE, this::handleDeadline);
+        handlers.put(Command.EVENT, this::handleEvent);
+        handlers.put(Command.WITHIN, this::handleWithin);
+        handlers.put(Command.MARK, this::handleMark);
+        handlers.put(Command.UNMARK, this::handleUnmark);
+        handlers.put(Command.DELETE, this::handleDelete);
+        handlers.put(Command.FIND, this::handleFind);
+        handlers.put(Command.DUE, this::handleDue);
+        handlers.put(Command.ON, this::handleOn);
+        handlers.put(Command.OVERLAPPING, this::handleOverlapping);
+        handlers.put(Command.FORMAT, this::handleFormat);
+        handlers.put(Command.IMPORT, this::handleImport);
+        handlers.put(Command.EXPORT, this::handleExport);
+        handlers.put(Command.STATS, command -> METRICS.getSummary());
+        handlers.put(Command.HELP, command -> getHelpMessage());
+        handlers.put(Command.BYE, command -> {
+            storage.flush();
+            return "Bye. Hope to see you again soon!";
+        });
+        assert handlers.size() == Command.values().length : "Every command should have a handler";
     }
 
     /**
@@ -47,6 +215,7 @@ public class Biscuit {
      */
     public void run() {
         ui.showWelcome();
+        enableReminders(System.out::println);
 
         try (Scanner scanner = new Scanner(System.in)) {
             while (true) {
@@ -71,8 +240,44 @@ public class Biscuit {
         ui.showGoodbye();
     }
 
+    /**
+     * Starts the CLI. Nothing on this path loads a JavaFX class.
+     * <p>
+     * With {@code --batch [file] [--save-every N]}, or when standard input is not
+     * a terminal, commands are read from the file (or standard input) and run
+     * without prompts; see {@link BatchRunner}. With {@code --server [port]}, the
+     * tasks are served to network clients; see {@link BiscuitServer}. Otherwise,
+     * or with {@code --cli}, the interactive loop runs.
+     *
+     * @param args Command-line arguments.
+     */
     public static void main(String[] args) {
-        new Biscuit().run();
+        if (args.length > 0 && args[0].equals("--server")) {
+            try {
+                BiscuitServer.runFromArgs(args);
+            } catch (BiscuitException e) {
+                System.err.println(e.getMessage());
+                System.exit(2);
+            }
+            return;
+        }
+
+        // --cli keeps the interactive loop even when piped; batch flags may come in any order
+        List<String> arguments = Arrays.asList(args);
+        boolean isBatch = arguments.contains("--batch")
+                || (System.console() == null && (args.length == 0 || arguments.contains("--save-every")));
+        if (!isBatch) {
+            METRICS.registerMBean();
+            new Biscuit().run();
+            return;
+        }
+
+        try {
+            System.exit(BatchRunner.runFromArgs(new Biscuit(), args) ? 0 : 1);
+        } catch (BiscuitException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+        }
     }
 
     /**
@@ -87,95 +292,310 @@ public class Biscuit {
      * @throws BiscuitException If the command is invalid or cannot be executed.
      */
     public String execute(String input) throws BiscuitException {
-        String trimmed = (input == null) ? "" : input.trim();
-        if (trimmed.isEmpty()) {
-            throw new BiscuitException("Command cannot be empty.");
+        long start = System.nanoTime();
+        ParsedCommand command;
+        try {
+            command = Parser.parseCommand(input);
+        } catch (BiscuitException e) {
+            METRICS.recordParse(System.nanoTime() - start, true);
+            throw e;
+        }
+        long parsed = System.nanoTime();
+        METRICS.recordParse(parsed - start, false);
+        if (!RUNS_WHILE_LOADING.contains(command.getCommand())) {
+            awaitLoad();
         }
 
-        String[] parts = trimmed.split("\\s+", 2);
-        String keyword = parts[0].toLowerCase();
-        String args = (parts.length == 2) ? parts[1] : "";
+        Lock commandLock = null;
+        if (!LOCKS_ITSELF.contains(command.getCommand())) {
+            commandLock = command.getCommand().isReadOnly() ? lock.readLock() : lock.writeLock();
+            commandLock.lock();
+        }
+        boolean isFailed = true;
+        try {
+            String response = handlers.get(command.getCommand()).handle(command);
+            isFailed = false;
+            String failure = loadFailure.getAndSet(null);
+            return (failure == null) ? response : failure + "\n" + response;
+        } finally {
+            if (commandLock != null) {
+                commandLock.unlock();
+            }
+            METRICS.recordCommand(command.getCommand(), System.nanoTime() - parsed, isFailed);
+        }
+    }
 
-        switch (keyword) {
-        case "list":
-            return formatList();
+    /**
+     * Writes out any changes still buffered by the storage and releases its
+     * background writer, and stops the reminders. Call this once when the
+     * application exits.
+     *
+     * @throws BiscuitException If the buffered changes cannot be written.
+     */
+    public void shutdown() throws BiscuitException {
+        awaitLoad();
+        if (reminders != null) {
+            reminders.close();
+        }
+        storage.close();
+    }
 
-        case "todo":
-            return handleTodo(args);
+    /**
+     * Checks whether the given user input indicates the application should exit.
+     *
+     * @param input Full command entered by the user.
+     * @return True if the command is an exit command (e.g. {@code bye}), false
+     *         otherwise.
+     */
+    boolean isExit(String input) {
+        return input != null && input.trim().equalsIgnoreCase("bye");
+    }
 
-        case "deadline":
-            return handleDeadline(args);
+    /**
+     * Stops writing each change to storage as it happens. Changes are kept in memory
+     * until {@link #saveDeferredChanges()} writes them all in a single save.
+     */
+    public void deferSaves() {
+        lock.writeLock().lock();
+        try {
+            isDeferringSaves = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Writes all changes made since {@link #deferSaves()} (or the previous call of
+     * this method) in a single save. Saves stay deferred.
+     *
+     * @throws BiscuitException If the data file cannot be written.
+     */
+    public void saveDeferredChanges() throws BiscuitException {
+        awaitLoad();
+        lock.writeLock().lock();
+        try {
+            if (hasUnsavedChanges) {
+                storage.save(tasks.asList());
+                hasUnsavedChanges = false;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
 
-        case "event":
-            return handleEvent(args);
+    /**
+     * Writes all deferred changes and goes back to writing each change as it happens.
+     *
+     * @throws BiscuitException If the data file cannot be written.
+     */
+    public void resumeSaves() throws BiscuitException {
+        awaitLoad();
+        lock.writeLock().lock();
+        try {
+            saveDeferredChanges();
+            isDeferringSaves = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
 
-        case "mark":
-            return handleMark(args);
+    /**
+     * Records a change through the storage journal, unless saves are deferred.
+     *
+     * @param write Journal write describing the change.
+     * @throws BiscuitException If the journal or snapshot cannot be written.
+     */
+    private void persist(JournalWrite write) throws BiscuitException {
+        if (isDeferringSaves) {
+            hasUnsavedChanges = true;
+            return;
+        }
+        write.run();
+        compactIfNeeded();
+    }
 
-        case "unmark":
-            return handleUnmark(args);
+    /**
+     * Folds the storage journal into a fresh snapshot once it has grown large enough.
+     *
+     * @throws BiscuitException If the snapshot cannot be written.
+     */
+    private void compactIfNeeded() throws BiscuitException {
+        if (storage.shouldCompact(tasks.size())) {
+            storage.save(tasks.asList());
+        }
+    }
 
-        case "delete":
-            return handleDelete(args);
+    /**
+     * Formats the current task list into a printable string.
+     *
+     * @return A formatted list of tasks, or a message indicating the list is empty.
+     */
+    private String formatList() {
+        if (tasks.isEmpty()) {
+            return "No tasks yet.";
+        }
 
-        case "find":
-            return handleFind(args);
+        StringBuilder sb = new StringBuilder("Here are your tasks:");
+        int number = 1;
+        for (Task task : tasks.asList()) {
+            sb.append("\n  ").append(number++).append(". ");
+            task.appendTo(sb);
+        }
+        return sb.toString();
+    }
 
-        case "bye":
-            return "Bye. Hope to see you again soon!";
+    /**
+     * Handles the {@code list} command, either for the whole list or for one page,
+     * in list order or as one of the sorted or filtered views.
+     * <p>
+     * Expected format: {@code list [/undone | /sort due|start] [/page N] [/size M]}
+     *
+     * @param command Parsed {@code list} command with its options.
+     * @return The formatted list or page.
+     * @throws BiscuitException If the options are invalid or the page is past the end.
+     */
+    private String handleList(ParsedCommand command) throws BiscuitException {
+        if (command.getArgs().isEmpty()) {
+            return formatList();
+        }
 
-        case "within":
-            return handleWithin(args);
+        String usage = "Usage: list [/undone | /sort due|start] [/page N] [/size M]";
+        String text = command.getText();
+        boolean isUndoneOnly = text.equalsIgnoreCase("/undone");
+        if (!text.isEmpty() && !isUndoneOnly) {
+            throw new BiscuitException(usage);
+        }
+        String sortRaw = command.getOption("sort");
+        if (isUndoneOnly && sortRaw != null) {
+            throw new BiscuitException("Use either /undone or /sort, not both.");
+        }
+        String pageRaw = command.getOption("page");
+        String sizeRaw = command.getOption("size");
+        int page = (pageRaw != null) ? Parser.parseNumberOption(pageRaw, "/page", 1) : 1;
+        int size = (sizeRaw != null) ? Parser.parseNumberOption(sizeRaw, "/size", 1) : DEFAULT_PAGE_SIZE;
+        boolean isPaged = pageRaw != null || sizeRaw != null;
 
-        case "display":
-        case "help":
-            return getHelpMessage();
+        if (isUndoneOnly) {
+            return formatView("Here are your undone tasks", "No undone tasks.", "/undone",
+                    tasks.countUndone(), tasks::getUndone, isPaged, page, size);
+        }
+        if (sortRaw == null) {
+            return formatPage(page, size);
+        }
+        switch (sortRaw.toLowerCase()) {
+        case "due":
+            return formatView("Here are your tasks by due date", "No tasks with a due date.", "/sort due",
+                    tasks.countWithDueDate(), tasks::getByDueDate, isPaged, page, size);
+        case "start":
+            return formatView("Here are your dated tasks by start", "No dated tasks.", "/sort start",
+                    tasks.countDated(), tasks::getByStart, isPaged, page, size);
         default:
-            throw new BiscuitException("Unknown command: " + keyword);
+            throw new BiscuitException(usage);
         }
     }
 
     /**
-     * Checks whether the given user input indicates the application should exit.
+     * Formats one page of the task list. Only the tasks on the page are rendered.
      *
-     * @param input Full command entered by the user.
-     * @return True if the command is an exit command (e.g. {@code bye}), false
-     *         otherwise.
+     * @param page 1-based page number.
+     * @param size Number of tasks per page.
+     * @return The formatted page, ending with the command for the next page if any.
+     * @throws BiscuitException If the page is past the end of the list.
      */
-    private boolean isExit(String input) {
-        return input != null && input.trim().equalsIgnoreCase("bye");
+    private String formatPage(int page, int size) throws BiscuitException {
+        if (tasks.isEmpty()) {
+            return "No tasks yet.";
+        }
+
+        int from = firstOnPage(page, size, tasks.size());
+        int to = (int) Math.min((long) from + size, tasks.size());
+        StringBuilder sb = new StringBuilder("Here are your tasks (")
+                .append(from + 1).append('-').append(to).append(" of ").append(tasks.size()).append("):\n");
+        for (int i = from; i < to; i++) {
+            sb.append("  ").append(i + 1).append(". ");
+            tasks.get(i).appendTo(sb).append("\n");
+        }
+        if (to < tasks.size()) {
+            sb.append("More: list /page ").append(page + 1).append(" /size ").append(size);
+        }
+        return sb.toString().trim();
     }
 
     /**
-     * Formats the current task list into a printable string.
+     * Formats a sorted or filtered view of the tasks, whole or one page of it.
+     * The view is read from an index kept up to date by {@link TaskList}, so only
+     * the tasks shown are visited. Each task keeps its number in the list, which
+     * {@code mark}, {@code unmark} and {@code delete} accept.
      *
-     * @return A formatted list of tasks, or a message indicating the list is empty.
+     * @param heading      First line of the reply, without the range or colon.
+     * @param emptyMessage Reply when the view has no tasks.
+     * @param viewOptions  Options selecting the view, repeated in the next-page hint.
+     * @param total        Number of tasks in the view.
+     * @param window       Reads a window of the view.
+     * @param isPaged      Whether to show one page rather than the whole view.
+     * @param page         1-based page number.
+     * @param size         Number of tasks per page.
+     * @return The formatted view or page.
+     * @throws BiscuitException If the page is past the end of the view.
      */
-    private String formatList() {
-        if (tasks.isEmpty()) {
-            return "No tasks yet.";
+    private String formatView(String heading, String emptyMessage, String viewOptions, int total,
+            TaskWindow window, boolean isPaged, int page, int size) throws BiscuitException {
+        if (total == 0) {
+            return emptyMessage;
         }
 
-        StringBuilder sb = new StringBuilder("Here are your tasks:\n");
-        for (int i = 0; i < tasks.size(); i++) {
-            sb.append("  ").append(i + 1).append(". ").append(tasks.get(i)).append("\n");
+        int from = isPaged ? firstOnPage(page, size, total) : 0;
+        List<Task> shown = window.get(from, isPaged ? size : total);
+        int to = from + shown.size();
+        StringBuilder sb = new StringBuilder(heading);
+        if (isPaged) {
+            sb.append(" (").append(from + 1).append('-').append(to).append(" of ").append(total).append(')');
+        }
+        sb.append(":\n");
+        for (Task task : shown) {
+            sb.append("  ").append(tasks.indexOfId(task.getId()) + 1).append(". ");
+            task.appendTo(sb).append("\n");
+        }
+        if (to < total) {
+            sb.append("More: list ").append(viewOptions).append(" /page ").append(page + 1)
+                    .append(" /size ").append(size);
         }
         return sb.toString().trim();
     }
 
+    /**
+     * Returns the 0-based position of the first item on a page.
+     *
+     * @throws BiscuitException If the page is past the end of the items.
+     */
+    private static int firstOnPage(int page, int size, int total) throws BiscuitException {
+        long pageCount = (total + (long) size - 1) / size;
+        if (page > pageCount) {
+            throw new BiscuitException("Page " + page + " is past the end of the list ("
+                    + pageCount + (pageCount == 1 ? " page)." : " pages)."));
+        }
+        return (int) ((long) (page - 1) * size);
+    }
+
     /**
      * Handles the {@code todo} command by creating and storing a {@link Todo} task.
      *
-     * @param args Description text after the {@code todo} keyword.
+     * @param command Parsed {@code todo} command; its arguments are the description.
      * @return Confirmation message describing the added todo.
      * @throws BiscuitException If the description is empty.
      */
-    private String handleTodo(String args) throws BiscuitException {
-        String description = Parser.requireNonEmpty(args, "The description of a todo cannot be empty.");
+    private String handleTodo(ParsedCommand command) throws BiscuitException {
+        String description = Parser.requireNonEmpty(command.getArgs(), "The description of a todo cannot be empty.");
         Todo todo = new Todo(description);
+        if (queuedTodos != null) {
+            // still loading; journaled by loadTasks() once the loaded tasks are in place
+            todo.setId(firstQueuedId.join() + queuedTodos.size());
+            queuedTodos.add(todo);
+            return formatAdded(todo);
+        }
         tasks.add(todo);
-        storage.save(tasks.asList());
-        return "Added: " + todo;
+        persist(() -> storage.appendAdd(todo));
+        return formatAdded(todo);
     }
 
     /**
@@ -184,28 +604,22 @@ public class Biscuit {
      * <p>
      * Expected format: {@code deadline <description> /by YYYY-MM-DD}
      *
-     * @param args Arguments after the {@code deadline} keyword.
+     * @param command Parsed {@code deadline} command with its {@code /by} option.
      * @return Confirmation message describing the added deadline.
      * @throws BiscuitException If the format is invalid or date cannot be parsed.
      */
-    private String handleDeadline(String args) throws BiscuitException {
+    private String handleDeadline(ParsedCommand command) throws BiscuitException {
         // format: deadline <desc> /by YYYY-MM-DD
-        String[] split = args.split("\\s+/by\\s+", 2);
-        if (split.length < 2) {
-            throw new BiscuitException("Usage: deadline <description> /by YYYY-MM-DD");
-        }
-
-        String description = Parser.requireNonEmpty(split[0].trim(),
+        String byRaw = command.requireOption("by", "Usage: deadline <description> /by YYYY-MM-DD");
+        String description = Parser.requireNonEmpty(command.getText(),
                 "The description of a deadline cannot be empty.");
-        String byRaw = Parser.requireNonEmpty(split[1].trim(),
-                "The /by date cannot be empty.");
 
         LocalDate by = Parser.parseDeadlineDate(byRaw);
         Deadline deadline = new Deadline(description, by);
 
         tasks.add(deadline);
-        storage.save(tasks.asList());
-        return "Added: " + deadline;
+        persist(() -> storage.appendAdd(deadline));
+        return formatAdded(deadline);
     }
 
     /**
@@ -215,100 +629,375 @@ public class Biscuit {
      * Expected format:
      * {@code event <description> /from YYYY-MM-DD HH:mm /to YYYY-MM-DD HH:mm}
      *
-     * @param args Arguments after the {@code event} keyword.
+     * @param command Parsed {@code event} command with its {@code /from} and {@code /to} options.
      * @return Confirmation message describing the added event.
      * @throws BiscuitException If the format is invalid, dates cannot be parsed, or
      *                          end is before start.
      */
-    private String handleEvent(String args) throws BiscuitException {
+    private String handleEvent(ParsedCommand command) throws BiscuitException {
         // format: event <desc> /from YYYY-MM-DD HH:mm /to YYYY-MM-DD HH:mm
-        String[] fromSplit = args.split("\\s+/from\\s+", 2);
-        if (fromSplit.length < 2) {
-            throw new BiscuitException("Usage: event <description> /from YYYY-MM-DD HH:mm /to YYYY-MM-DD HH:mm");
-        }
-
-        String description = Parser.requireNonEmpty(fromSplit[0].trim(),
+        String usage = "Usage: event <description> /from YYYY-MM-DD HH:mm /to YYYY-MM-DD HH:mm";
+        String fromRaw = command.requireOption("from", usage);
+        String toRaw = command.requireOption("to", usage);
+        String description = Parser.requireNonEmpty(command.getText(),
                 "The description of an event cannot be empty.");
 
-        String[] toSplit = fromSplit[1].split("\\s+/to\\s+", 2);
-        if (toSplit.length < 2) {
-            throw new BiscuitException("Usage: event <description> /from YYYY-MM-DD HH:mm /to YYYY-MM-DD HH:mm");
-        }
-
-        LocalDateTime from = Parser.parseEventDateTime(toSplit[0].trim(), "event start");
-        LocalDateTime to = Parser.parseEventDateTime(toSplit[1].trim(), "event end");
+        LocalDateTime from = Parser.parseEventDateTime(fromRaw, "event start");
+        LocalDateTime to = Parser.parseEventDateTime(toRaw, "event end");
         if (to.isBefore(from)) {
             throw new BiscuitException("Event end must be after the event start.");
         }
 
         Event event = new Event(description, from, to);
         tasks.add(event);
-        storage.save(tasks.asList());
-        return "Added: " + event;
+        persist(() -> storage.appendAdd(event));
+        return formatAdded(event);
     }
 
-    private String handleMark(String args) throws BiscuitException {
-        int index = Parser.parseIndex(Parser.requireNonEmpty(args, "Please provide a task number."), tasks, "mark");
-        Task task = tasks.get(index - 1);
-        task.mark();
-        storage.save(tasks.asList());
-        return "Marked as done: " + task;
+    /**
+     * Handles the {@code mark} command for one or more tasks, recorded as a single
+     * journal write.
+     * <p>
+     * Expected format: {@code mark <taskNumbers>}, e.g. {@code mark 3}, {@code mark 1-5,8} or {@code mark #12}
+     *
+     * @param command Parsed {@code mark} command; its arguments are the selection.
+     * @return Confirmation message listing the marked tasks.
+     * @throws BiscuitException If any part of the selection is invalid.
+     */
+    private String handleMark(ParsedCommand command) throws BiscuitException {
+        int[] indices = Parser.parseSelection(
+                Parser.requireNonEmpty(command.getArgs(), "Please provide a task number."), tasks, "mark");
+        List<Task> selected = tasks.markAll(indices);
+        persist(() -> storage.appendMark(indices));
+        return formatSelection("Marked as done", indices, selected);
     }
 
-    private String handleUnmark(String args) throws BiscuitException {
-        int index = Parser.parseIndex(Parser.requireNonEmpty(args, "Please provide a task number."), tasks, "unmark");
-        Task task = tasks.get(index - 1);
-        task.unmark();
-        storage.save(tasks.asList());
-        return "Marked as not done: " + task;
+    /**
+     * Handles the {@code unmark} command for one or more tasks, recorded as a single
+     * journal write.
+     * <p>
+     * Expected format: {@code unmark <taskNumbers>}, e.g. {@code unmark 3}, {@code unmark 1-5,8} or {@code unmark #12}
+     *
+     * @param command Parsed {@code unmark} command; its arguments are the selection.
+     * @return Confirmation message listing the unmarked tasks.
+     * @throws BiscuitException If any part of the selection is invalid.
+     */
+    private String handleUnmark(ParsedCommand command) throws BiscuitException {
+        int[] indices = Parser.parseSelection(
+                Parser.requireNonEmpty(command.getArgs(), "Please provide a task number."), tasks, "unmark");
+        List<Task> selected = tasks.unmarkAll(indices);
+        persist(() -> storage.appendUnmark(indices));
+        return formatSelection("Marked as not done", indices, selected);
     }
 
-    private String handleDelete(String args) throws BiscuitException {
-        int index = Parser.parseIndex(Parser.requireNonEmpty(args, "Please provide a task number."), tasks, "delete");
-        Task removed = tasks.remove(index - 1);
-        storage.save(tasks.asList());
-        return "Deleted: " + removed;
+    /**
+     * Handles the {@code delete} command for one or more tasks, or for every task
+     * that is done. The tasks are removed in one pass and recorded as a single
+     * journal write.
+     * <p>
+     * Expected format: {@code delete <taskNumbers>} (e.g. {@code delete 3,7,10-20})
+     * or {@code delete /done}
+     *
+     * @param command Parsed {@code delete} command; its arguments are the selection.
+     * @return Confirmation message listing the deleted tasks.
+     * @throws BiscuitException If any part of the selection is invalid.
+     */
+    private String handleDelete(ParsedCommand command) throws BiscuitException {
+        String selection = Parser.requireNonEmpty(command.getArgs(), "Please provide a task number.");
+        int[] indices;
+        if (selection.equalsIgnoreCase("/done")) {
+            indices = tasks.findDoneIndices();
+            if (indices.length == 0) {
+                return "No done tasks to delete.";
+            }
+        } else {
+            indices = Parser.parseSelection(selection, tasks, "delete");
+        }
+
+        List<Task> removed = tasks.removeAll(indices);
+        persist(() -> storage.appendDelete(indices));
+        return formatSelection("Deleted", indices, removed);
+    }
+
+    /**
+     * Formats the confirmation for an added task, with the id that {@code mark},
+     * {@code unmark} and {@code delete} accept as {@code #<id>}.
+     *
+     * @param task Task that was just added to the list.
+     * @return The formatted confirmation.
+     */
+    private static String formatAdded(Task task) {
+        return "Added: " + task + " (#" + task.getId() + ")";
+    }
+
+    /**
+     * Formats the tasks affected by a command. A single task keeps the one-line
+     * form; more are listed with their task numbers, up to one page.
+     *
+     * @param action   Past-tense action, e.g. "Deleted".
+     * @param indices  0-based positions the tasks had when selected.
+     * @param selected Affected tasks, in the order of {@code indices}.
+     * @return The formatted confirmation.
+     */
+    private static String formatSelection(String action, int[] indices, List<Task> selected) {
+        if (selected.size() == 1) {
+            return action + ": " + selected.get(0);
+        }
+
+        StringBuilder sb = new StringBuilder(action).append(" (").append(selected.size()).append(" tasks):\n");
+        int shown = Math.min(selected.size(), DEFAULT_PAGE_SIZE);
+        for (int i = 0; i < shown; i++) {
+            sb.append("  ").append(indices[i] + 1).append(". ");
+            selected.get(i).appendTo(sb).append("\n");
+        }
+        if (shown < selected.size()) {
+            sb.append("  ... and ").append(selected.size() - shown).append(" more.");
+        }
+        return sb.toString().trim();
     }
 
     /**
      * Handles the {@code find} command by searching tasks containing the given
      * keyword.
+     * <p>
+     * With {@code /limit K}, at most K matches are shown, followed by the command
+     * that continues the search; {@code /after N} skips the first N matches.
      *
-     * @param args Keyword text after the {@code find} keyword.
+     * @param command Parsed {@code find} command; its text is the keyword.
      * @return A formatted list of matching tasks, or a message indicating no
      *         matches were found.
      * @throws BiscuitException If the keyword is empty.
      */
-    private String handleFind(String args) throws BiscuitException {
+    private String handleFind(ParsedCommand command) throws BiscuitException {
         if (tasks.isEmpty()) {
             return "No tasks yet.";
         }
-        String keyword = Parser.requireNonEmpty(args, "Keyword cannot be empty.");
-        List<Task> matches = tasks.find(keyword);
+        String keyword = Parser.requireNonEmpty(command.getText(), "Keyword cannot be empty.");
+        if (!command.hasOptions()) {
+            List<Task> matches = tasks.find(keyword);
+            if (matches.isEmpty()) {
+                return "No matching tasks found for: " + keyword;
+            }
+            return formatTasks("Matching tasks:", matches);
+        }
+
+        String limitRaw = command.getOption("limit");
+        String afterRaw = command.getOption("after");
+        int limit = (limitRaw != null) ? Parser.parseNumberOption(limitRaw, "/limit", 1) : DEFAULT_PAGE_SIZE;
+        int after = (afterRaw != null) ? Parser.parseNumberOption(afterRaw, "/after", 0) : 0;
+
+        // one extra match tells whether there is a next window
+        List<Task> matches = tasks.find(keyword, after, (limit == Integer.MAX_VALUE) ? limit : limit + 1);
+        boolean hasMore = matches.size() > limit;
+        if (hasMore) {
+            matches = matches.subList(0, limit);
+        }
+        if (matches.isEmpty()) {
+            return (after == 0 ? "No matching tasks found for: " : "No more matching tasks for: ") + keyword;
+        }
+
+        StringBuilder sb = new StringBuilder("Matching tasks (")
+                .append(after + 1).append('-').append(after + matches.size()).append("):\n");
+        for (int i = 0; i < matches.size(); i++) {
+            sb.append("  ").append(after + i + 1).append(". ");
+            matches.get(i).appendTo(sb).append("\n");
+        }
+        if (hasMore) {
+            sb.append("More: find ").append(keyword).append(" /limit ").append(limit)
+                    .append(" /after ").append((long) after + limit);
+        }
+        return sb.toString().trim();
+    }
+
+    /**
+     * Handles the {@code due} command by listing deadlines and within-period tasks
+     * that fall due between two dates.
+     * <p>
+     * Expected format: {@code due YYYY-MM-DD YYYY-MM-DD}
+     *
+     * @param command Parsed {@code due} command; its arguments are the two dates.
+     * @return A formatted list of matching tasks ordered by due date.
+     * @throws BiscuitException If the dates are missing or invalid.
+     */
+    private String handleDue(ParsedCommand command) throws BiscuitException {
+        LocalDate[] range = Parser.parseDateRange(command.getArgs(), "Usage: due YYYY-MM-DD YYYY-MM-DD");
+        List<Task> matches = tasks.findDueBetween(range[0], range[1]);
+
+        String period = "between " + range[0] + " and " + range[1];
+        if (matches.isEmpty()) {
+            return "No tasks due " + period + ".";
+        }
+        return formatTasks("Tasks due " + period + ":", matches);
+    }
+
+    /**
+     * Handles the {@code on} command by listing the dated tasks that take place on
+     * the given day.
+     * <p>
+     * Expected format: {@code on YYYY-MM-DD}
+     *
+     * @param command Parsed {@code on} command; its argument is the date.
+     * @return A formatted list of matching tasks ordered by start.
+     * @throws BiscuitException If the date is missing or invalid.
+     */
+    private String handleOn(ParsedCommand command) throws BiscuitException {
+        LocalDate date = Parser.parseDate(Parser.requireNonEmpty(command.getArgs(), "Usage: on YYYY-MM-DD"), "query");
+        List<Task> matches = tasks.findOverlapping(date.atStartOfDay(), date.atTime(LocalTime.MAX));
+
+        if (matches.isEmpty()) {
+            return "No tasks on " + date + ".";
+        }
+        return formatTasks("Tasks on " + date + ":", matches);
+    }
+
+    /**
+     * Handles the {@code overlapping} command by listing the dated tasks whose time
+     * span overlaps the given dates.
+     * <p>
+     * Expected format: {@code overlapping YYYY-MM-DD YYYY-MM-DD}
+     *
+     * @param command Parsed {@code overlapping} command; its arguments are the two dates.
+     * @return A formatted list of matching tasks ordered by start.
+     * @throws BiscuitException If the dates are missing or invalid.
+     */
+    private String handleOverlapping(ParsedCommand command) throws BiscuitException {
+        LocalDate[] range = Parser.parseDateRange(command.getArgs(), "Usage: overlapping YYYY-MM-DD YYYY-MM-DD");
+        List<Task> matches = tasks.findOverlapping(range[0].atStartOfDay(), range[1].atTime(LocalTime.MAX));
 
+        String period = "between " + range[0] + " and " + range[1];
         if (matches.isEmpty()) {
-            return "No matching tasks found for: " + keyword;
+            return "No tasks overlapping " + period + ".";
         }
+        return formatTasks("Tasks overlapping " + period + ":", matches);
+    }
 
-        StringBuilder sb = new StringBuilder("Matching tasks:\n");
+    /**
+     * Formats tasks as a numbered list under a header line.
+     *
+     * @param header  First line of the output.
+     * @param matches Tasks to number and list.
+     * @return The formatted list.
+     */
+    private static String formatTasks(String header, List<Task> matches) {
+        StringBuilder sb = new StringBuilder(header).append("\n");
         for (int i = 0; i < matches.size(); i++) {
-            sb.append("  ").append(i + 1).append(". ").append(matches.get(i)).append("\n");
+            sb.append("  ").append(i + 1).append(". ");
+            matches.get(i).appendTo(sb).append("\n");
         }
         return sb.toString().trim();
     }
 
+    /**
+     * Handles the {@code format} command by converting the data file to the text or
+     * binary format.
+     * <p>
+     * Expected format: {@code format text} or {@code format binary}
+     *
+     * @param command Parsed {@code format} command; its argument is the format name.
+     * @return Confirmation message naming the new format.
+     * @throws BiscuitException If the format name is unknown or the file cannot be written.
+     */
+    private String handleFormat(ParsedCommand command) throws BiscuitException {
+        String name = Parser.requireNonEmpty(command.getArgs(), "Usage: format text|binary").toLowerCase();
+
+        Storage.Format format;
+        switch (name) {
+        case "text":
+            format = Storage.Format.TEXT;
+            break;
+        case "binary":
+            format = Storage.Format.BINARY;
+            break;
+        default:
+            throw new BiscuitException("Usage: format text|binary");
+        }
+
+        storage.setFormat(format);
+        storage.save(tasks.asList());
+        storage.flush();
+        return "Data file converted to " + name + " format.";
+    }
+
+    /**
+     * Handles the {@code import} command by appending the tasks of an iCalendar or
+     * CSV file. The tasks are added and saved together, as one snapshot.
+     * <p>
+     * The file is read without holding the lock, so other commands are not held up
+     * by a large import; the write lock is only taken to add and save the tasks.
+     * <p>
+     * Expected format: {@code import <file.ics|file.csv>}
+     *
+     * @param command Parsed {@code import} command; its argument is the file path.
+     * @return Number of tasks imported, with the number of records skipped.
+     * @throws BiscuitException If the file cannot be read or the data file cannot be written.
+     */
+    private String handleImport(ParsedCommand command) throws BiscuitException {
+        Path path = toPath(Parser.requireNonEmpty(command.getArgs(), "Usage: import <file.ics|file.csv>"));
+        TaskTransfer.ImportResult result = TaskTransfer.importTasks(path);
+        List<Task> imported = result.getTasks();
+        if (!imported.isEmpty()) {
+            lock.writeLock().lock();
+            try {
+                tasks.addAll(imported);
+                persist(() -> storage.save(tasks.asList()));
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        String message = "Imported " + imported.size() + " task" + (imported.size() == 1 ? "" : "s")
+                + " from " + path + ".";
+        if (result.getSkippedCount() > 0) {
+            message += "\nSkipped " + result.getSkippedCount() + " record"
+                    + (result.getSkippedCount() == 1 ? "" : "s") + "; first problem: " + result.getFirstError();
+        }
+        return message;
+    }
+
+    /**
+     * Handles the {@code export} command by writing every task to an iCalendar or
+     * CSV file.
+     * <p>
+     * Expected format: {@code export <file.ics|file.csv>}
+     *
+     * @param command Parsed {@code export} command; its argument is the file path.
+     * @return Number of tasks exported.
+     * @throws BiscuitException If the file cannot be written.
+     */
+    private String handleExport(ParsedCommand command) throws BiscuitException {
+        Path path = toPath(Parser.requireNonEmpty(command.getArgs(), "Usage: export <file.ics|file.csv>"));
+        List<Task> all = tasks.asList();
+        TaskTransfer.exportTasks(all, path);
+        return "Exported " + all.size() + " task" + (all.size() == 1 ? "" : "s") + " to " + path + ".";
+    }
+
+    private static Path toPath(String text) throws BiscuitException {
+        try {
+            return Paths.get(text);
+        } catch (InvalidPathException e) {
+            throw new BiscuitException("Invalid file path: " + text);
+        }
+    }
+
     private String getHelpMessage() {
         return String.join("\n",
                 "Available commands:",
-                "  list",
+                "  list [/undone | /sort due|start] [/page N] [/size M]",
                 "  todo <description>",
                 "  deadline <description> /by YYYY-MM-DD",
                 "  event <description> /from YYYY-MM-DD HH:mm /to YYYY-MM-DD HH:mm",
                 "  within <description> /from YYYY-MM-DD /to YYYY-MM-DD",
-                "  mark <taskNumber>",
-                "  unmark <taskNumber>",
-                "  delete <taskNumber>",
-                "  find <keyword>",
+                "  mark <taskNumbers>   (e.g. 3, 1-5, 2,4,7-9 or #12)",
+                "  unmark <taskNumbers>",
+                "  delete <taskNumbers>   (or: delete /done)",
+                "  find <keyword> [/limit K] [/after N]",
+                "  due YYYY-MM-DD YYYY-MM-DD",
+                "  on YYYY-MM-DD",
+                "  overlapping YYYY-MM-DD YYYY-MM-DD",
+                "  format text|binary",
+                "  import <file.ics|file.csv>",
+                "  export <file.ics|file.csv>",
+                "  stats",
                 "  display   (or: help)",
                 "  bye");
     }
@@ -330,26 +1019,19 @@ public class Biscuit {
      * <p>
      * Expected format: {@code within <description> /from YYYY-MM-DD /to YYYY-MM-DD}
      *
-     * @param args Arguments after the {@code within} keyword.
+     * @param command Parsed {@code within} command with its {@code /from} and {@code /to} options.
      * @return Confirmation message describing the added task.
      * @throws BiscuitException If the format is invalid or dates cannot be parsed.
      */
-    private String handleWithin(String args) throws BiscuitException {
-        String[] fromSplit = args.split("\\s+/from\\s+", 2);
-        if (fromSplit.length < 2) {
-            throw new BiscuitException("Usage: within <description> /from YYYY-MM-DD /to YYYY-MM-DD");
-        }
-
-        String description = Parser.requireNonEmpty(fromSplit[0].trim(),
+    private String handleWithin(ParsedCommand command) throws BiscuitException {
+        String usage = "Usage: within <description> /from YYYY-MM-DD /to YYYY-MM-DD";
+        String startRaw = command.requireOption("from", usage);
+        String endRaw = command.requireOption("to", usage);
+        String description = Parser.requireNonEmpty(command.getText(),
                 "The description of a within-period task cannot be empty.");
 
-        String[] toSplit = fromSplit[1].split("\\s+/to\\s+", 2);
-        if (toSplit.length < 2) {
-            throw new BiscuitException("Usage: within <description> /from YYYY-MM-DD /to YYYY-MM-DD");
-        }
-
-        LocalDate start = Parser.parseDate(toSplit[0].trim(), "start");
-        LocalDate end = Parser.parseDate(toSplit[1].trim(), "end");
+        LocalDate start = Parser.parseDate(startRaw, "start");
+        LocalDate end = Parser.parseDate(endRaw, "end");
 
         if (end.isBefore(start)) {
             throw new BiscuitException("End date must be on or after the start date.");
@@ -357,9 +1039,31 @@ public class Biscuit {
 
         DoWithinPeriodTask task = new DoWithinPeriodTask(description, start, end);
         tasks.add(task);
-        storage.save(tasks.asList());
-        return "Added: " + task;
+        persist(() -> storage.appendAdd(task));
+        return formatAdded(task);
+    }
+
+    /**
+     * Executes one kind of {@link Command}.
+     */
+    @FunctionalInterface
+    private interface CommandHandler {
+        String handle(ParsedCommand command) throws BiscuitException;
     }
 
+    /**
+     * Reads a window of a sorted or filtered view of the tasks.
+     */
+    @FunctionalInterface
+    private interface TaskWindow {
+        List<Task> get(int skip, int limit);
+    }
 
+    /**
+     * A single write to the storage journal.
+     */
+    @FunctionalInterface
+    private interface JournalWrite {
+        void run() throws BiscuitException;
+    }
 }
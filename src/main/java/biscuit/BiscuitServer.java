@@ -0,0 +1,345 @@
+package biscuit;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Serves one shared {@link Biscuit}, or one per user from {@link Workspaces}, to
+ * many clients over a local TCP port.
+ * <p>
+ * The protocol is line based: a client sends one command per line, and the
+ * server answers each with the response text followed by an empty line.
+ * Sending {@code bye} closes the connection; it does not stop the server. When
+ * serving workspaces, a client first sends {@code user <name>} to pick the task
+ * list its commands go to, and may switch lists the same way later.
+ * <p>
+ * Every connection is read by its own thread, but commands are executed by a
+ * fixed pool of worker threads fed by a bounded queue. When the queue is full
+ * the command is not run and the client is told that the server is busy, so a
+ * burst of requests cannot pile up without limit.
+ */
+public class BiscuitServer implements AutoCloseable {
+
+    static final String BUSY_MESSAGE = "Server busy, please try again.";
+    static final String TOO_MANY_CONNECTIONS_MESSAGE = "Too many connections, please try again later.";
+
+    private static final int DEFAULT_PORT = 8420;
+    private static final int DEFAULT_QUEUE_CAPACITY = 1024;
+    private static final int DEFAULT_MAX_CONNECTIONS = 512;
+    private static final long FLUSH_INTERVAL_MILLIS = 500;
+    private static final int MAX_DIRTY_RECORDS = 256;
+    private static final int MAX_LOADED_USERS = 256;
+    private static final String USER_COMMAND = "user";
+
+    private final Biscuit sharedBiscuit;
+    private final Workspaces workspaces;
+    private final ThreadPoolExecutor workers;
+    private final int maxConnections;
+    private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger connectionCount = new AtomicInteger();
+    private ServerSocket serverSocket;
+    private volatile boolean isClosed;
+
+    /**
+     * Creates a server for the given chatbot. Call {@link #bind(int)} and then
+     * {@link #serve()} to start it.
+     *
+     * @param biscuit        Chatbot whose commands are served.
+     * @param workerCount    Number of threads executing commands.
+     * @param queueCapacity  Number of commands that may wait for a worker.
+     * @param maxConnections Number of clients that may be connected at once.
+     */
+    public BiscuitServer(Biscuit biscuit, int workerCount, int queueCapacity, int maxConnections) {
+        this(biscuit, null, workerCount, queueCapacity, maxConnections);
+        assert biscuit != null : "Biscuit should not be null";
+    }
+
+    /**
+     * Creates a server that gives each user their own task list. Call
+     * {@link #bind(int)} and then {@link #serve()} to start it.
+     *
+     * @param workspaces     Registry of the users' task lists.
+     * @param workerCount    Number of threads executing commands.
+     * @param queueCapacity  Number of commands that may wait for a worker.
+     * @param maxConnections Number of clients that may be connected at once.
+     */
+    public BiscuitServer(Workspaces workspaces, int workerCount, int queueCapacity, int maxConnections) {
+        this(null, workspaces, workerCount, queueCapacity, maxConnections);
+        assert workspaces != null : "Workspaces should not be null";
+    }
+
+    private BiscuitServer(Biscuit sharedBiscuit, Workspaces workspaces, int workerCount, int queueCapacity,
+            int maxConnections) {
+        assert workerCount > 0 && queueCapacity > 0 && maxConnections > 0 : "Limits should be positive";
+
+        this.sharedBiscuit = sharedBiscuit;
+        this.workspaces = workspaces;
+        this.maxConnections = maxConnections;
+        AtomicInteger workerNumber = new AtomicInteger();
+        workers = new ThreadPoolExecutor(workerCount, workerCount, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "biscuit-worker-" + workerNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Starts listening on the loopback interface.
+     *
+     * @param port Port to listen on, or 0 for any free port.
+     * @throws BiscuitException If the port cannot be bound.
+     */
+    public void bind(int port) throws BiscuitException {
+        try {
+            serverSocket = new ServerSocket(port, 0, InetAddress.getLoopbackAddress());
+        } catch (IOException e) {
+            throw new BiscuitException("Failed to listen on port " + port + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the port the server listens on.
+     *
+     * @return Bound port.
+     */
+    public int getPort() {
+        assert serverSocket != null : "Server should be bound";
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Accepts connections until {@link #close()} is called.
+     *
+     * @throws BiscuitException If accepting fails for a reason other than closing.
+     */
+    public void serve() throws BiscuitException {
+        assert serverSocket != null : "Server should be bound";
+        AtomicInteger connectionNumber = new AtomicInteger();
+        while (!isClosed) {
+            Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (IOException e) {
+                if (isClosed) {
+                    return;
+                }
+                throw new BiscuitException("Failed to accept a connection: " + e.getMessage());
+            }
+
+            if (connectionCount.incrementAndGet() > maxConnections) {
+                connectionCount.decrementAndGet();
+                reject(socket);
+                continue;
+            }
+            Thread thread = new Thread(() -> handle(socket), "biscuit-connection-"
+                    + connectionNumber.incrementAndGet());
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    private void reject(Socket socket) {
+        try (socket) {
+            Writer out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8);
+            out.write(TOO_MANY_CONNECTIONS_MESSAGE + "\n\n");
+            out.flush();
+        } catch (IOException e) {
+            // the client is turned away either way
+        }
+    }
+
+    private void handle(Socket socket) {
+        connections.add(socket);
+        Biscuit biscuit = sharedBiscuit;
+        String user = null;
+        try (socket;
+                BufferedReader in = new BufferedReader(
+                        new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                Writer out = new BufferedWriter(
+                        new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                String input = line.trim();
+                if (input.isEmpty()) {
+                    continue;
+                }
+                boolean isBye = input.equalsIgnoreCase("bye");
+                String response;
+                if (isBye) {
+                    response = "Bye. Hope to see you again soon!";
+                } else if (workspaces != null && isUserCommand(input)) {
+                    String name = input.substring(USER_COMMAND.length()).trim();
+                    try {
+                        biscuit = workspaces.switchUser(user, name);
+                        user = name;
+                        response = "Now using the task list of " + name + ".";
+                    } catch (BiscuitException e) {
+                        response = e.getMessage();
+                    }
+                } else if (biscuit == null) {
+                    response = "Choose a task list first: user <name>";
+                } else {
+                    response = respond(biscuit, input);
+                }
+                out.write(response);
+                out.write("\n\n");
+                out.flush();
+                if (isBye) {
+                    break;
+                }
+            }
+        } catch (SocketException e) {
+            // the client went away or the server is closing
+        } catch (IOException e) {
+            System.err.println("Connection error: " + e.getMessage());
+        } finally {
+            if (user != null) {
+                workspaces.release(user);
+            }
+            connections.remove(socket);
+            connectionCount.decrementAndGet();
+        }
+    }
+
+    private static boolean isUserCommand(String input) {
+        return input.regionMatches(true, 0, USER_COMMAND, 0, USER_COMMAND.length())
+                && (input.length() == USER_COMMAND.length()
+                        || Character.isWhitespace(input.charAt(USER_COMMAND.length())));
+    }
+
+    /**
+     * Executes the command on a worker thread and waits for its response.
+     */
+    private String respond(Biscuit biscuit, String input) {
+        Future<String> response;
+        try {
+            response = workers.submit(() -> biscuit.getResponse(input));
+        } catch (RejectedExecutionException e) {
+            return BUSY_MESSAGE;
+        }
+
+        try {
+            return response.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            response.cancel(true);
+            return BUSY_MESSAGE;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof BiscuitException) {
+                return e.getCause().getMessage();
+            }
+            // the client only learns that it failed; the details are for the server log
+            System.err.println("Command failed: " + input);
+            e.getCause().printStackTrace();
+            return "Error: internal error";
+        }
+    }
+
+    /**
+     * Stops accepting connections, disconnects all clients and stops the workers
+     * after the commands already queued have run.
+     */
+    @Override
+    public void close() {
+        isClosed = true;
+        try {
+            if (serverSocket != null) {
+                serverSocket.close();
+            }
+        } catch (IOException e) {
+            // already closed
+        }
+        for (Socket socket : connections) {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // already closed
+            }
+        }
+        workers.shutdown();
+        try {
+            workers.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Runs a server as configured by command-line arguments of the form
+     * {@code --server [port] [--users] [--stats-every SECONDS]}, until the process
+     * is stopped. With {@code --users}, every user gets their own task list under
+     * {@code data/users}. With {@code --stats-every}, the {@link Metrics} summary is
+     * printed to standard error at that interval.
+     *
+     * @param args Command-line arguments.
+     * @throws BiscuitException If the arguments are invalid or the port cannot be bound.
+     */
+    public static void runFromArgs(String[] args) throws BiscuitException {
+        assert args.length > 0 && args[0].equals("--server") : "First argument should be --server";
+        int port = DEFAULT_PORT;
+        boolean hasUsers = false;
+        int statsSeconds = 0;
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("--users")) {
+                hasUsers = true;
+            } else if (args[i].equals("--stats-every") && i + 1 < args.length) {
+                statsSeconds = Parser.parseNumberOption(args[++i], "--stats-every", 1);
+            } else if (i == 1) {
+                port = Parser.parseNumberOption(args[i], "port", 0);
+            } else {
+                throw new BiscuitException("Usage: --server [port] [--users] [--stats-every SECONDS]");
+            }
+        }
+
+        int workerCount = Runtime.getRuntime().availableProcessors();
+        AutoCloseable tasks;
+        BiscuitServer server;
+        if (hasUsers) {
+            Workspaces workspaces = new Workspaces(Path.of("data", "users"), MAX_LOADED_USERS);
+            tasks = workspaces;
+            server = new BiscuitServer(workspaces, workerCount, DEFAULT_QUEUE_CAPACITY, DEFAULT_MAX_CONNECTIONS);
+        } else {
+            Storage storage = new Storage();
+            storage.enableWriteBehind(FLUSH_INTERVAL_MILLIS, MAX_DIRTY_RECORDS);
+            Biscuit biscuit = new Biscuit(storage);
+            tasks = biscuit::shutdown;
+            server = new BiscuitServer(biscuit, workerCount, DEFAULT_QUEUE_CAPACITY, DEFAULT_MAX_CONNECTIONS);
+        }
+        server.bind(port);
+        Metrics.getInstance().registerMBean();
+        if (statsSeconds > 0) {
+            Metrics.getInstance().startLogging(statsSeconds, System.err);
+        }
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.close();
+            try {
+                tasks.close();
+            } catch (Exception e) {
+                System.err.println(e.getMessage());
+            }
+        }));
+        System.out.println("Biscuit is serving on port " + server.getPort() + ".");
+        server.serve();
+    }
+}
@@ -0,0 +1,122 @@
+package biscuit;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+
+/**
+ * Bounded history of the GUI conversation.
+ * <p>
+ * Keeps at most {@code capacity} recent messages in memory. When the history
+ * overflows, the oldest quarter is dropped in one step (so trimming stays
+ * amortized O(1) per message) and, if a spill file is configured, appended to it
+ * so the full conversation is still kept on disk. The file is written by a
+ * background thread, so the JavaFX thread never waits on the disk; call
+ * {@link #close()} on exit to finish the pending writes.
+ */
+public class ChatHistory {
+
+    private final ObservableList<ChatMessage> messages = FXCollections.observableArrayList();
+    private final int capacity;
+    private final Path spillPath;
+    // null if dropped messages are discarded
+    private final ExecutorService spillWriter;
+
+    /**
+     * Creates an empty history.
+     *
+     * @param capacity  Number of recent messages kept in memory.
+     * @param spillPath File that dropped messages are appended to, or {@code null}
+     *                  to discard them.
+     */
+    public ChatHistory(int capacity, Path spillPath) {
+        assert capacity > 0 : "History capacity should be positive";
+
+        this.capacity = capacity;
+        this.spillPath = spillPath;
+        spillWriter = (spillPath == null) ? null : Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "biscuit-history-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Returns the messages currently held in memory, oldest first. The list is
+     * observable so that a list view can display it directly.
+     *
+     * @return Recent messages.
+     */
+    public ObservableList<ChatMessage> getMessages() {
+        return messages;
+    }
+
+    /**
+     * Appends a message, dropping (and spilling) the oldest messages if the
+     * history overflows.
+     *
+     * @param message Message to append.
+     */
+    public void add(ChatMessage message) {
+        messages.add(message);
+        if (messages.size() > capacity + capacity / 4) {
+            List<ChatMessage> oldest = messages.subList(0, messages.size() - capacity);
+            if (spillWriter != null) {
+                List<ChatMessage> dropped = new ArrayList<>(oldest);
+                try {
+                    spillWriter.execute(() -> spill(dropped));
+                } catch (RejectedExecutionException e) {
+                    // closed; the application is exiting
+                }
+            }
+            oldest.clear();
+        }
+    }
+
+    /**
+     * Waits for the dropped messages still being written to the spill file, and
+     * stops the background writer. Messages added afterwards are not spilled.
+     */
+    public void close() {
+        if (spillWriter == null) {
+            return;
+        }
+        spillWriter.shutdown();
+        try {
+            spillWriter.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void spill(List<ChatMessage> dropped) {
+        try {
+            Path parent = spillPath.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            try (BufferedWriter writer = Files.newBufferedWriter(spillPath, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (ChatMessage message : dropped) {
+                    writer.write(message.toString().replace("\n", "\\n"));
+                    writer.newLine();
+                }
+            }
+        } catch (IOException e) {
+            // losing old chat lines is harmless; the tasks themselves are saved elsewhere
+            System.err.println("Failed to write chat history file: " + spillPath);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package biscuit;
+
+/**
+ * Represents one message in the GUI conversation.
+ */
+public class ChatMessage {
+    private final String text;
+    private final boolean isFromUser;
+
+    /**
+     * Creates a chat message.
+     *
+     * @param text       Message text.
+     * @param isFromUser True if the user sent the message, false if Biscuit did.
+     */
+    public ChatMessage(String text, boolean isFromUser) {
+        assert text != null : "Message text should not be null";
+
+        this.text = text;
+        this.isFromUser = isFromUser;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public boolean isFromUser() {
+        return isFromUser;
+    }
+
+    @Override
+    public String toString() {
+        return (isFromUser ? "user: " : "biscuit: ") + text;
+    }
+}
@@ -1,43 +1,92 @@
 package biscuit;
 
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
 /**
  * Represents a user command that can be executed by Biscuit.
+ * <p>
+ * Each command knows its keywords and the {@code /name} options it accepts, so
+ * that {@link Parser#parseCommand(String)} only treats those names as options.
  */
 public enum Command {
-    ADD("add"),
-    LIST("list"),
-    MARK("mark"),
-    UNMARK("unmark"),
-    DELETE("delete"),
-    FIND("find"),
-    BYE("bye");
+    LIST(new String[] {"list"}, "sort", "page", "size"),
+    TODO(new String[] {"todo"}),
+    DEADLINE(new String[] {"deadline"}, "by"),
+    EVENT(new String[] {"event"}, "from", "to"),
+    WITHIN(new String[] {"within"}, "from", "to"),
+    MARK(new String[] {"mark"}),
+    UNMARK(new String[] {"unmark"}),
+    DELETE(new String[] {"delete"}),
+    FIND(new String[] {"find"}, "limit", "after"),
+    DUE(new String[] {"due"}),
+    ON(new String[] {"on"}),
+    OVERLAPPING(new String[] {"overlapping"}),
+    FORMAT(new String[] {"format"}),
+    IMPORT(new String[] {"import"}),
+    EXPORT(new String[] {"export"}),
+    STATS(new String[] {"stats"}),
+    HELP(new String[] {"help", "display"}),
+    BYE(new String[] {"bye"});
+
+    private static final Map<String, Command> BY_KEYWORD = new HashMap<>();
+    private static final EnumSet<Command> READ_ONLY = EnumSet.of(LIST, FIND, DUE, ON, OVERLAPPING, EXPORT, STATS,
+            HELP);
 
-    private static final String MESSAGE_INVALID_COMMAND = "Not a valid command";
+    static {
+        for (Command command : values()) {
+            for (String keyword : command.keywords) {
+                BY_KEYWORD.put(keyword, command);
+            }
+        }
+    }
 
-    private final String text;
+    private final String[] keywords;
+    private final String[] optionNames;
 
-    private Command(String text) {
-        this.text = text;
+    private Command(String[] keywords, String... optionNames) {
+        this.keywords = keywords;
+        this.optionNames = optionNames;
     }
 
     /**
-     * Returns the corresponding {@code Command} for the given raw user input.
+     * Returns the names, without the slash, of the options this command accepts.
+     * The array must not be modified.
      *
-     * @param raw Raw command text entered by the user.
-     * @return Matching {@code Command}.
-     * @throws BiscuitException If the input does not map to a known command.
+     * @return Option names in declaration order.
      */
-    public static Command parse(String raw) throws BiscuitException {
-        if (raw == null) {
-            throw new BiscuitException(MESSAGE_INVALID_COMMAND);
-        }
+    String[] getOptionNames() {
+        return optionNames;
+    }
 
-        String trimmed = raw.trim().toLowerCase();
-        for (Command command : Command.values()) {
-            if (command.text.equals(trimmed)) {
-                return command;
+    /**
+     * Checks whether this command only reads the task list, so that it may run
+     * concurrently with other read-only commands.
+     *
+     * @return True if the command changes neither the tasks nor the data file.
+     */
+    public boolean isReadOnly() {
+        return READ_ONLY.contains(this);
+    }
+
+    /**
+     * Returns the command with the given keyword, ignoring case.
+     *
+     * @param keyword First word of the user's input.
+     * @return Matching {@code Command}.
+     * @throws BiscuitException If no command has that keyword.
+     */
+    public static Command fromKeyword(String keyword) throws BiscuitException {
+        Command command = BY_KEYWORD.get(keyword);
+        if (command == null) {
+            String lowerCase = keyword.toLowerCase(Locale.ROOT);
+            command = BY_KEYWORD.get(lowerCase);
+            if (command == null) {
+                throw new BiscuitException("Unknown command: " + lowerCase);
             }
         }
-        throw new BiscuitException(MESSAGE_INVALID_COMMAND);
+        return command;
     }
 }
@@ -0,0 +1,332 @@
+package biscuit;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Reads and writes tasks as CSV (RFC 4180) rows with the columns
+ * {@code type,done,description,by,from,to}.
+ * <p>
+ * {@code type} is {@code todo}, {@code deadline}, {@code event} or {@code within}
+ * (or their letters {@code T}, {@code D}, {@code E} and {@code P}) and {@code done}
+ * is {@code true} or {@code false} ({@code yes}/{@code no} and {@code 1}/{@code 0}
+ * are also accepted). A deadline has a {@code by} date, an event {@code from} and
+ * {@code to} date-times, and a within-period task {@code from} and {@code to} dates,
+ * written as in commands ({@code yyyy-MM-dd} and {@code yyyy-MM-dd HH:mm}).
+ * <p>
+ * On import the header row is optional; when present, columns are matched by name,
+ * so they may come in any order and unknown columns are ignored. Quoted fields may
+ * contain commas, quotes and line breaks.
+ */
+final class CsvCodec {
+
+    private static final String[] COLUMNS = {"type", "done", "description", "by", "from", "to"};
+    private static final int TYPE = 0;
+    private static final int DONE = 1;
+    private static final int DESCRIPTION = 2;
+    private static final int BY = 3;
+    private static final int FROM = 4;
+    private static final int TO = 5;
+
+    private CsvCodec() {
+    }
+
+    /**
+     * Writes a header row and one row per task.
+     *
+     * @param tasks  Tasks to write.
+     * @param writer Destination; not closed.
+     * @throws IOException If writing fails.
+     */
+    static void write(List<Task> tasks, Writer writer) throws IOException {
+        writer.write(String.join(",", COLUMNS));
+        TaskTransfer.newLine(writer);
+        for (Task task : tasks) {
+            String[] fields = new String[COLUMNS.length];
+            fields[DONE] = task.isDone() ? "true" : "false";
+            fields[DESCRIPTION] = task.getDescription();
+            if (task instanceof Deadline) {
+                fields[TYPE] = "deadline";
+                fields[BY] = DateFormats.formatDate(((Deadline) task).getBy());
+            } else if (task instanceof Event) {
+                Event e = (Event) task;
+                fields[TYPE] = "event";
+                fields[FROM] = DateFormats.formatDateTime(e.getFrom());
+                fields[TO] = DateFormats.formatDateTime(e.getTo());
+            } else if (task instanceof DoWithinPeriodTask) {
+                DoWithinPeriodTask p = (DoWithinPeriodTask) task;
+                fields[TYPE] = "within";
+                fields[FROM] = DateFormats.formatDate(p.getStart());
+                fields[TO] = DateFormats.formatDate(p.getEnd());
+            } else {
+                fields[TYPE] = "todo";
+            }
+            for (int i = 0; i < fields.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                if (fields[i] != null) {
+                    writeField(writer, fields[i]);
+                }
+            }
+            TaskTransfer.newLine(writer);
+        }
+    }
+
+    private static void writeField(Writer writer, String field) throws IOException {
+        boolean needsQuotes = !field.isEmpty()
+                && (field.charAt(0) == ' ' || field.charAt(field.length() - 1) == ' ');
+        for (int i = 0; i < field.length() && !needsQuotes; i++) {
+            char c = field.charAt(i);
+            needsQuotes = c == ',' || c == '"' || c == '\r' || c == '\n';
+        }
+        if (!needsQuotes) {
+            writer.write(field);
+            return;
+        }
+        writer.write('"');
+        writer.write(field.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    /**
+     * Splits a CSV stream into rows. Blank lines are skipped, and a first row with
+     * {@code type} and {@code description} fields is taken as the header.
+     */
+    static final class Reader implements TaskTransfer.RecordReader {
+        private static final int BUFFER_SIZE = 8192;
+
+        private final java.io.Reader in;
+        private final char[] buffer = new char[BUFFER_SIZE];
+        private int position;
+        private int limit;
+        private int lineNumber = 1;
+        private boolean hasReadFirstRow;
+        /** Position of each of {@link #COLUMNS} in a row, or -1 if the file has no such column. */
+        private int[] columnIndices = {TYPE, DONE, DESCRIPTION, BY, FROM, TO};
+
+        Reader(java.io.Reader in) {
+            this.in = in;
+        }
+
+        @Override
+        public TaskTransfer.RawRecord next() throws IOException, BiscuitException {
+            while (true) {
+                int line = lineNumber;
+                List<String> fields = readRow();
+                if (fields == null) {
+                    return null;
+                }
+                if (fields.size() == 1 && fields.get(0).isBlank()) {
+                    continue;
+                }
+                if (!hasReadFirstRow) {
+                    hasReadFirstRow = true;
+                    int[] header = mapColumns(fields);
+                    if (header[TYPE] >= 0 && header[DESCRIPTION] >= 0) {
+                        columnIndices = header;
+                        continue;
+                    }
+                }
+                return new Row(line, fields, columnIndices);
+            }
+        }
+
+        private static int[] mapColumns(List<String> header) {
+            int[] indices = new int[COLUMNS.length];
+            for (int column = 0; column < COLUMNS.length; column++) {
+                indices[column] = -1;
+                for (int i = 0; i < header.size(); i++) {
+                    if (header.get(i).trim().equalsIgnoreCase(COLUMNS[column])) {
+                        indices[column] = i;
+                        break;
+                    }
+                }
+            }
+            return indices;
+        }
+
+        /**
+         * Reads the fields of the next row, which ends at a line break outside quotes.
+         *
+         * @return Fields of the row, or null at the end of the input.
+         */
+        private List<String> readRow() throws IOException, BiscuitException {
+            if (!fill()) {
+                return null;
+            }
+            int startLine = lineNumber;
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean isQuoted = false;
+            boolean wasQuoted = false;
+            while (fill()) {
+                char c = buffer[position++];
+                if (isQuoted) {
+                    if (c == '"') {
+                        if (fill() && buffer[position] == '"') {
+                            position++;
+                            field.append('"');
+                        } else {
+                            isQuoted = false;
+                        }
+                    } else {
+                        if (c == '\n') {
+                            lineNumber++;
+                        }
+                        field.append(c);
+                    }
+                } else if (c == '"' && field.length() == 0 && !wasQuoted) {
+                    isQuoted = true;
+                    wasQuoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                    wasQuoted = false;
+                } else if (c == '\n' || c == '\r') {
+                    if (c == '\r' && fill() && buffer[position] == '\n') {
+                        position++;
+                    }
+                    lineNumber++;
+                    break;
+                } else {
+                    field.append(c);
+                }
+            }
+            if (isQuoted) {
+                throw new BiscuitException("Line " + startLine + ": a quoted field is never closed.");
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+
+        /**
+         * Makes sure the buffer has a character to read.
+         *
+         * @return False at the end of the input.
+         */
+        private boolean fill() throws IOException {
+            if (position < limit) {
+                return true;
+            }
+            int read = in.read(buffer, 0, BUFFER_SIZE);
+            if (read <= 0) {
+                return false;
+            }
+            position = 0;
+            limit = read;
+            return true;
+        }
+    }
+
+    /**
+     * One data row, not yet turned into a task.
+     */
+    private static final class Row implements TaskTransfer.RawRecord {
+        private final int line;
+        private final List<String> fields;
+        private final int[] columnIndices;
+
+        private Row(int line, List<String> fields, int[] columnIndices) {
+            this.line = line;
+            this.fields = fields;
+            this.columnIndices = columnIndices;
+        }
+
+        @Override
+        public int getLine() {
+            return line;
+        }
+
+        @Override
+        public Task toTask() throws BiscuitException {
+            String description = TaskTransfer.cleanDescription(field(DESCRIPTION));
+            String type = field(TYPE).toLowerCase(Locale.ROOT);
+            Task task;
+            switch (type) {
+            case "todo":
+            case "t":
+                task = new Todo(description);
+                break;
+            case "deadline":
+            case "d":
+                task = new Deadline(description, date(BY));
+                break;
+            case "event":
+            case "e":
+                LocalDateTime from = dateTime(FROM);
+                LocalDateTime to = dateTime(TO);
+                if (to.isBefore(from)) {
+                    throw new BiscuitException("Event end must be after the event start.");
+                }
+                task = new Event(description, from, to);
+                break;
+            case "within":
+            case "p":
+                LocalDate start = date(FROM);
+                LocalDate end = date(TO);
+                if (end.isBefore(start)) {
+                    throw new BiscuitException("End date must be on or after the start date.");
+                }
+                task = new DoWithinPeriodTask(description, start, end);
+                break;
+            default:
+                throw new BiscuitException("Unknown task type \"" + field(TYPE)
+                        + "\": use todo, deadline, event or within.");
+            }
+            if (isDone()) {
+                task.mark();
+            }
+            return task;
+        }
+
+        /**
+         * Returns the trimmed value of a column, or an empty string if the row or the
+         * file does not have it.
+         */
+        private String field(int column) {
+            int index = columnIndices[column];
+            return (index >= 0 && index < fields.size()) ? fields.get(index).trim() : "";
+        }
+
+        private boolean isDone() throws BiscuitException {
+            switch (field(DONE).toLowerCase(Locale.ROOT)) {
+            case "true":
+            case "yes":
+            case "1":
+                return true;
+            case "false":
+            case "no":
+            case "0":
+            case "":
+                return false;
+            default:
+                throw new BiscuitException("Invalid done value \"" + field(DONE) + "\": use true or false.");
+            }
+        }
+
+        private LocalDate date(int column) throws BiscuitException {
+            try {
+                return DateFormats.parseDate(field(column));
+            } catch (DateTimeParseException e) {
+                throw new BiscuitException("Invalid " + COLUMNS[column] + " date \"" + field(column)
+                        + "\". Use YYYY-MM-DD (e.g., 2026-01-20).");
+            }
+        }
+
+        private LocalDateTime dateTime(int column) throws BiscuitException {
+            try {
+                return DateFormats.parseDateTime(field(column));
+            } catch (DateTimeParseException e) {
+                throw new BiscuitException("Invalid " + COLUMNS[column] + " date-time \"" + field(column)
+                        + "\". Use YYYY-MM-DD HH:mm (e.g., 2026-01-20 14:00).");
+            }
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package biscuit;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Parses and formats the {@code yyyy-MM-dd} and {@code yyyy-MM-dd HH:mm} dates
+ * used in commands and in the data file.
+ * <p>
+ * Well-formed input is read digit by digit without going through
+ * {@link DateTimeFormatter}, which is several times slower and allocates a
+ * parse context per call. Anything else (other widths, out-of-range fields such
+ * as {@code 2026-02-30}) falls back to the formatter, so the accepted input,
+ * the resolved dates and the exceptions are exactly those of
+ * {@code LocalDate.parse(text, ofPattern("yyyy-MM-dd"))}.
+ */
+final class DateFormats {
+
+    private static final DateTimeFormatter DATE_FMT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final DateTimeFormatter DATE_TIME_FMT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    private static final int DATE_LENGTH = 10;
+    private static final int DATE_TIME_LENGTH = 16;
+
+    private DateFormats() {
+    }
+
+    /**
+     * Parses a {@code yyyy-MM-dd} date.
+     *
+     * @param text Date text, without surrounding whitespace.
+     * @return Parsed date.
+     * @throws DateTimeParseException If the text is not a valid date.
+     */
+    static LocalDate parseDate(String text) {
+        if (text.length() == DATE_LENGTH) {
+            LocalDate date = readDate(text);
+            if (date != null) {
+                return date;
+            }
+        }
+        return LocalDate.parse(text, DATE_FMT);
+    }
+
+    /**
+     * Parses a {@code yyyy-MM-dd HH:mm} date-time.
+     *
+     * @param text Date-time text, without surrounding whitespace.
+     * @return Parsed date-time.
+     * @throws DateTimeParseException If the text is not a valid date-time.
+     */
+    static LocalDateTime parseDateTime(String text) {
+        if (text.length() == DATE_TIME_LENGTH && text.charAt(10) == ' ' && text.charAt(13) == ':') {
+            LocalDate date = readDate(text);
+            int hour = twoDigits(text, 11);
+            int minute = twoDigits(text, 14);
+            if (date != null && hour >= 0 && hour <= 23 && minute >= 0 && minute <= 59) {
+                return date.atTime(hour, minute);
+            }
+        }
+        return LocalDateTime.parse(text, DATE_TIME_FMT);
+    }
+
+    /**
+     * Formats a date as {@code yyyy-MM-dd}.
+     *
+     * @param date Date to format.
+     * @return Formatted date.
+     */
+    static String formatDate(LocalDate date) {
+        if (!hasFourDigitYear(date)) {
+            return date.format(DATE_FMT);
+        }
+        char[] out = new char[DATE_LENGTH];
+        writeDate(out, date);
+        return new String(out);
+    }
+
+    /**
+     * Formats a date-time as {@code yyyy-MM-dd HH:mm}.
+     *
+     * @param dateTime Date-time to format.
+     * @return Formatted date-time.
+     */
+    static String formatDateTime(LocalDateTime dateTime) {
+        LocalDate date = dateTime.toLocalDate();
+        if (!hasFourDigitYear(date)) {
+            return dateTime.format(DATE_TIME_FMT);
+        }
+        char[] out = new char[DATE_TIME_LENGTH];
+        writeDate(out, date);
+        out[10] = ' ';
+        writeTwoDigits(out, 11, dateTime.getHour());
+        out[13] = ':';
+        writeTwoDigits(out, 14, dateTime.getMinute());
+        return new String(out);
+    }
+
+    /**
+     * Reads the date in the first ten characters, or returns null if it is not
+     * strictly valid; the caller then lets the formatter decide.
+     */
+    private static LocalDate readDate(String text) {
+        if (text.charAt(4) != '-' || text.charAt(7) != '-') {
+            return null;
+        }
+        int high = twoDigits(text, 0);
+        int low = twoDigits(text, 2);
+        int month = twoDigits(text, 5);
+        int day = twoDigits(text, 8);
+        if (high < 0 || low < 0 || month < 1 || month > 12 || day < 1) {
+            return null;
+        }
+        int year = high * 100 + low;
+        // year-of-era 0 does not exist, so leave it to the formatter to reject
+        if (year == 0 || day > lengthOfMonth(year, month)) {
+            return null;
+        }
+        return LocalDate.of(year, month, day);
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        switch (month) {
+        case 2:
+            boolean isLeap = (year % 4 == 0) && (year % 100 != 0 || year % 400 == 0);
+            return isLeap ? 29 : 28;
+        case 4:
+        case 6:
+        case 9:
+        case 11:
+            return 30;
+        default:
+            return 31;
+        }
+    }
+
+    /**
+     * Returns the two-digit number at {@code index}, or -1 if either character is
+     * not an ASCII digit.
+     */
+    private static int twoDigits(String text, int index) {
+        int tens = text.charAt(index) - '0';
+        int ones = text.charAt(index + 1) - '0';
+        if (tens < 0 || tens > 9 || ones < 0 || ones > 9) {
+            return -1;
+        }
+        return tens * 10 + ones;
+    }
+
+    private static boolean hasFourDigitYear(LocalDate date) {
+        return date.getYear() >= 1 && date.getYear() <= 9999;
+    }
+
+    private static void writeDate(char[] out, LocalDate date) {
+        int year = date.getYear();
+        writeTwoDigits(out, 0, year / 100);
+        writeTwoDigits(out, 2, year % 100);
+        out[4] = '-';
+        writeTwoDigits(out, 5, date.getMonthValue());
+        out[7] = '-';
+        writeTwoDigits(out, 8, date.getDayOfMonth());
+    }
+
+    private static void writeTwoDigits(char[] out, int index, int value) {
+        out[index] = (char) ('0' + value / 10);
+        out[index + 1] = (char) ('0' + value % 10);
+    }
+}
@@ -29,7 +29,7 @@ public class Deadline extends Task {
     }
 
     @Override
-    public String toString() {
-        return "[D]" + super.toString() + " (by: " + by.format(OUTPUT_FMT) + ")";
+    protected String render(boolean isDone) {
+        return "[D]" + renderStatus(isDone) + " (by: " + by.format(OUTPUT_FMT) + ")";
     }
 }
@@ -1,39 +1,44 @@
 package biscuit;
 
-import java.io.IOException;
-import java.util.Collections;
-
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
-import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
+import javafx.geometry.Insets;
 import javafx.geometry.Pos;
-import javafx.scene.Node;
 import javafx.scene.control.Label;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.HBox;
+import javafx.scene.layout.Region;
 
 /**
  * Represents a dialog box consisting of an ImageView to represent the speaker's
  * face
  * and a label containing text from the speaker.
+ * <p>
+ * The nodes are built in code rather than loaded from FXML, because parsing FXML
+ * for every message was the most expensive step of showing a reply.
  */
 public class DialogBox extends HBox {
-    @FXML
-    private Label dialog;
-    @FXML
-    private ImageView displayPicture;
+    private static final double PREF_WIDTH = 400.0;
+    private static final double PICTURE_SIZE = 99.0;
+    private static final Insets PADDING = new Insets(15.0, 5.0, 15.0, 5.0);
+
+    private final Label dialog = new Label();
+    private final ImageView displayPicture = new ImageView();
+
+    private boolean isFlipped;
 
     private DialogBox(String text, Image img) {
-        try {
-            FXMLLoader fxmlLoader = new FXMLLoader(MainWindow.class.getResource("/view/DialogBox.fxml"));
-            fxmlLoader.setController(this);
-            fxmlLoader.setRoot(this);
-            fxmlLoader.load();
-        } catch (IOException e) {
-            throw new IllegalStateException("Failed to load /view/DialogBox.fxml", e);
-        }
+        setAlignment(Pos.TOP_RIGHT);
+        setMaxSize(Double.MAX_VALUE, Double.MAX_VALUE);
+        setPrefWidth(PREF_WIDTH);
+        setPadding(PADDING);
+
+        dialog.setWrapText(true);
+        dialog.setMinHeight(Region.USE_PREF_SIZE);
+        displayPicture.setFitWidth(PICTURE_SIZE);
+        displayPicture.setFitHeight(PICTURE_SIZE);
+        displayPicture.setPickOnBounds(true);
+        displayPicture.setPreserveRatio(true);
+        getChildren().setAll(dialog, displayPicture);
 
         dialog.setText(text);
         displayPicture.setImage(img);
@@ -44,10 +49,30 @@ public class DialogBox extends HBox {
      * right.
      */
     private void flip() {
-        ObservableList<Node> tmp = FXCollections.observableArrayList(this.getChildren());
-        Collections.reverse(tmp);
-        getChildren().setAll(tmp);
-        setAlignment(Pos.TOP_LEFT);
+        isFlipped = !isFlipped;
+        if (isFlipped) {
+            getChildren().setAll(displayPicture, dialog);
+            setAlignment(Pos.TOP_LEFT);
+        } else {
+            getChildren().setAll(dialog, displayPicture);
+            setAlignment(Pos.TOP_RIGHT);
+        }
+    }
+
+    /**
+     * Replaces the content of this dialog box, so that one box can be reused for
+     * many messages.
+     *
+     * @param text      Message text.
+     * @param img       Picture of the speaker.
+     * @param isFlipped True to show the picture on the left (Biscuit's replies).
+     */
+    public void showMessage(String text, Image img, boolean isFlipped) {
+        dialog.setText(text);
+        displayPicture.setImage(img);
+        if (this.isFlipped != isFlipped) {
+            flip();
+        }
     }
 
     public static DialogBox getUserDialog(String text, Image img) {
@@ -38,8 +38,8 @@ public class DoWithinPeriodTask extends Task {
     }
 
     @Override
-    public String toString() {
-        return "[P]" + super.toString()
+    protected String render(boolean isDone) {
+        return "[P]" + renderStatus(isDone)
                 + " (between: " + start.format(OUTPUT_FMT)
                 + " and " + end.format(OUTPUT_FMT) + ")";
     }
@@ -39,8 +39,8 @@ public class Event extends Task {
     }
 
     @Override
-    public String toString() {
-        return "[E]" + super.toString()
+    protected String render(boolean isDone) {
+        return "[E]" + renderStatus(isDone)
                 + " (from: " + from.format(OUTPUT_FMT)
                 + " to: " + to.format(OUTPUT_FMT) + ")";
     }
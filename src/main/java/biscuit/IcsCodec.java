@@ -0,0 +1,421 @@
+package biscuit;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reads and writes tasks as iCalendar (RFC 5545) components.
+ * <p>
+ * On import:
+ * <ul>
+ * <li>a {@code VEVENT} with date-times becomes an {@link Event}, ending at
+ * {@code DTEND}, or after {@code DURATION}, or at its start if it has neither</li>
+ * <li>a {@code VEVENT} with whole dates becomes a {@link DoWithinPeriodTask} from
+ * its first to its last day ({@code DTEND} is the day after)</li>
+ * <li>a {@code VTODO} with {@code DUE} becomes a {@link Deadline} on that day, and
+ * any other {@code VTODO} a {@link Todo}</li>
+ * </ul>
+ * {@code SUMMARY} is the description. A {@code VTODO} is done when its
+ * {@code STATUS} is {@code COMPLETED}; events carry their done state in
+ * {@code X-BISCUIT-DONE}, which Biscuit writes on export. Times in UTC or with a
+ * {@code TZID} are converted to the local time zone; floating times are taken as
+ * local. Recurrence rules are ignored, so a recurring event imports as its first
+ * occurrence.
+ * <p>
+ * Export writes floating local times, which round-trip exactly, and folds lines at
+ * 75 bytes as the standard requires.
+ */
+final class IcsCodec {
+
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("yyyyMMdd", Locale.ROOT);
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss", Locale.ROOT);
+    private static final int MAX_LINE_BYTES = 75;
+
+    private IcsCodec() {
+    }
+
+    /**
+     * Writes the tasks as a {@code VCALENDAR}.
+     *
+     * @param tasks  Tasks to write.
+     * @param writer Destination; not closed.
+     * @throws IOException If writing fails.
+     */
+    static void write(List<Task> tasks, Writer writer) throws IOException {
+        String stamp = DATE_TIME.format(LocalDateTime.now(ZoneOffset.UTC)) + "Z";
+        writeLine(writer, "BEGIN:VCALENDAR");
+        writeLine(writer, "VERSION:2.0");
+        writeLine(writer, "PRODID:-//Biscuit//Biscuit//EN");
+        int count = 0;
+        for (Task task : tasks) {
+            boolean isEvent = task instanceof Event || task instanceof DoWithinPeriodTask;
+            String component = isEvent ? "VEVENT" : "VTODO";
+            writeLine(writer, "BEGIN:" + component);
+            // tasks without an id yet still need a unique UID
+            long uid = (task.getId() != 0) ? task.getId() : -(++count);
+            writeLine(writer, "UID:" + uid + "@biscuit");
+            writeLine(writer, "DTSTAMP:" + stamp);
+            writeLine(writer, "SUMMARY:" + escape(task.getDescription()));
+            if (task instanceof Deadline) {
+                writeLine(writer, "DUE;VALUE=DATE:" + DATE.format(((Deadline) task).getBy()));
+            } else if (task instanceof Event) {
+                Event e = (Event) task;
+                writeLine(writer, "DTSTART:" + DATE_TIME.format(e.getFrom()));
+                writeLine(writer, "DTEND:" + DATE_TIME.format(e.getTo()));
+            } else if (task instanceof DoWithinPeriodTask) {
+                DoWithinPeriodTask p = (DoWithinPeriodTask) task;
+                writeLine(writer, "DTSTART;VALUE=DATE:" + DATE.format(p.getStart()));
+                writeLine(writer, "DTEND;VALUE=DATE:" + DATE.format(p.getEnd().plusDays(1)));
+            }
+            if (task.isDone()) {
+                writeLine(writer, isEvent ? "X-BISCUIT-DONE:TRUE" : "STATUS:COMPLETED");
+            }
+            writeLine(writer, "END:" + component);
+        }
+        writeLine(writer, "END:VCALENDAR");
+    }
+
+    /**
+     * Writes a content line, folded so that no line exceeds 75 UTF-8 bytes.
+     */
+    private static void writeLine(Writer writer, String line) throws IOException {
+        // a char is at most 3 bytes, so short lines never need folding
+        if (line.length() * 3 <= MAX_LINE_BYTES) {
+            writer.write(line);
+            TaskTransfer.newLine(writer);
+            return;
+        }
+        int bytes = 0;
+        for (int i = 0; i < line.length(); ) {
+            int codePoint = line.codePointAt(i);
+            int width = (codePoint < 0x80) ? 1 : (codePoint < 0x800) ? 2 : (codePoint < 0x10000) ? 3 : 4;
+            if (bytes + width > MAX_LINE_BYTES) {
+                TaskTransfer.newLine(writer);
+                writer.write(' ');
+                bytes = 1;
+            }
+            writer.write(line, i, Character.charCount(codePoint));
+            bytes += width;
+            i += Character.charCount(codePoint);
+        }
+        TaskTransfer.newLine(writer);
+    }
+
+    private static String escape(String text) {
+        return text.replace("\\", "\\\\").replace(";", "\\;").replace(",", "\\,");
+    }
+
+    private static String unescape(String text) {
+        if (text.indexOf('\\') < 0) {
+            return text;
+        }
+        StringBuilder sb = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\\' && i + 1 < text.length()) {
+                char next = text.charAt(++i);
+                sb.append((next == 'n' || next == 'N') ? ' ' : next);
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Splits an iCalendar stream into its {@code VEVENT} and {@code VTODO}
+     * components, unfolding continued lines. Nested components, such as alarms, and
+     * all other components are skipped.
+     */
+    static final class Reader implements TaskTransfer.RecordReader {
+        private final BufferedReader in;
+        // TZID values seen in this file; looking a zone up can be slow, and throws if it
+        // is unknown. Shared by the components, which are converted on several threads.
+        private final Map<String, Optional<ZoneId>> zones = new ConcurrentHashMap<>();
+        private String lookahead;
+        private int lookaheadLine;
+        private int lineNumber;
+        private int currentLine;
+
+        Reader(BufferedReader in) {
+            this.in = in;
+        }
+
+        @Override
+        public TaskTransfer.RawRecord next() throws IOException {
+            Component component = null;
+            int nestedDepth = 0;
+            for (String line = nextLine(); line != null; line = nextLine()) {
+                String upper = line.toUpperCase(Locale.ROOT);
+                if (component == null) {
+                    if (upper.equals("BEGIN:VEVENT") || upper.equals("BEGIN:VTODO")) {
+                        component = new Component(upper.equals("BEGIN:VEVENT"), currentLine, zones);
+                    }
+                } else if (upper.startsWith("BEGIN:")) {
+                    nestedDepth++;
+                } else if (upper.startsWith("END:")) {
+                    if (nestedDepth == 0) {
+                        return component;
+                    }
+                    nestedDepth--;
+                } else if (nestedDepth == 0) {
+                    component.addProperty(line);
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Returns the next content line with its continuation lines joined to it,
+         * and sets {@code currentLine} to the line number it starts on.
+         */
+        private String nextLine() throws IOException {
+            String line;
+            if (lookahead != null) {
+                line = lookahead;
+                currentLine = lookaheadLine;
+                lookahead = null;
+            } else {
+                line = readRawLine();
+                currentLine = lineNumber;
+            }
+            if (line == null) {
+                return null;
+            }
+
+            StringBuilder unfolded = null;
+            for (String next = readRawLine(); next != null; next = readRawLine()) {
+                if (next.isEmpty() || (next.charAt(0) != ' ' && next.charAt(0) != '\t')) {
+                    lookahead = next;
+                    lookaheadLine = lineNumber;
+                    break;
+                }
+                if (unfolded == null) {
+                    unfolded = new StringBuilder(line);
+                }
+                unfolded.append(next, 1, next.length());
+            }
+            return (unfolded == null) ? line : unfolded.toString();
+        }
+
+        private String readRawLine() throws IOException {
+            String line = in.readLine();
+            if (line != null) {
+                lineNumber++;
+            }
+            return line;
+        }
+    }
+
+    /**
+     * Properties of one {@code VEVENT} or {@code VTODO}, keyed by upper-case name.
+     */
+    private static final class Component implements TaskTransfer.RawRecord {
+        private final boolean isEvent;
+        private final int line;
+        private final Map<String, String> values = new HashMap<>();
+        private final Map<String, String> parameters = new HashMap<>();
+        private final Map<String, Optional<ZoneId>> zones;
+
+        private Component(boolean isEvent, int line, Map<String, Optional<ZoneId>> zones) {
+            this.isEvent = isEvent;
+            this.line = line;
+            this.zones = zones;
+        }
+
+        @Override
+        public int getLine() {
+            return line;
+        }
+
+        /**
+         * Stores a {@code NAME;PARAM=...:value} line. Only the first occurrence of a
+         * property is kept.
+         */
+        private void addProperty(String contentLine) {
+            int colon = findValueColon(contentLine);
+            if (colon < 0) {
+                return;
+            }
+            String head = contentLine.substring(0, colon);
+            int semicolon = head.indexOf(';');
+            String name = ((semicolon < 0) ? head : head.substring(0, semicolon)).toUpperCase(Locale.ROOT);
+            if (!values.containsKey(name)) {
+                values.put(name, contentLine.substring(colon + 1));
+                parameters.put(name, (semicolon < 0) ? "" : head.substring(semicolon + 1));
+            }
+        }
+
+        /**
+         * Returns the colon that ends the property name and parameters; colons
+         * inside quoted parameter values (e.g. in a TZID) do not count.
+         */
+        private static int findValueColon(String contentLine) {
+            boolean isQuoted = false;
+            for (int i = 0; i < contentLine.length(); i++) {
+                char c = contentLine.charAt(i);
+                if (c == '"') {
+                    isQuoted = !isQuoted;
+                } else if (c == ':' && !isQuoted) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        public Task toTask() throws BiscuitException {
+            String description = TaskTransfer.cleanDescription(
+                    values.containsKey("SUMMARY") ? unescape(values.get("SUMMARY")) : null);
+            Task task = isEvent ? toEventTask(description) : toTodoTask(description);
+            boolean isDone = isEvent
+                    ? "TRUE".equalsIgnoreCase(values.get("X-BISCUIT-DONE"))
+                    : "COMPLETED".equalsIgnoreCase(values.get("STATUS")) || values.containsKey("COMPLETED");
+            if (isDone) {
+                task.mark();
+            }
+            return task;
+        }
+
+        private Task toEventTask(String description) throws BiscuitException {
+            if (!values.containsKey("DTSTART")) {
+                throw new BiscuitException("VEVENT has no DTSTART.");
+            }
+            if (isDate("DTSTART")) {
+                LocalDate start = parseDate("DTSTART");
+                LocalDate end = values.containsKey("DTEND") ? parseDate("DTEND").minusDays(1) : start;
+                return new DoWithinPeriodTask(description, start, end.isBefore(start) ? start : end);
+            }
+
+            LocalDateTime from = parseDateTime("DTSTART");
+            LocalDateTime to = from;
+            if (values.containsKey("DTEND")) {
+                to = parseDateTime("DTEND");
+            } else if (values.containsKey("DURATION")) {
+                to = from.plus(parseDuration(values.get("DURATION")));
+            }
+            if (to.isBefore(from)) {
+                throw new BiscuitException("VEVENT ends before it starts.");
+            }
+            return new Event(description, from, to);
+        }
+
+        private Task toTodoTask(String description) throws BiscuitException {
+            if (values.containsKey("DUE")) {
+                LocalDate due = isDate("DUE") ? parseDate("DUE") : parseDateTime("DUE").toLocalDate();
+                return new Deadline(description, due);
+            }
+            return new Todo(description);
+        }
+
+        private boolean isDate(String name) {
+            String params = parameters.get(name).toUpperCase(Locale.ROOT);
+            if (params.contains("VALUE=DATE-TIME")) {
+                return false;
+            }
+            return params.contains("VALUE=DATE") || values.get(name).trim().length() == 8;
+        }
+
+        private LocalDate parseDate(String name) throws BiscuitException {
+            String value = values.get(name).trim();
+            try {
+                if (value.length() >= 8) {
+                    return LocalDate.of(digits(value, 0, 4), digits(value, 4, 6), digits(value, 6, 8));
+                }
+            } catch (DateTimeException | NumberFormatException e) {
+                // reported below
+            }
+            throw new BiscuitException("Invalid " + name + " date: " + value);
+        }
+
+        /**
+         * Parses a {@code yyyyMMdd'T'HHmmss} date-time in local time: UTC times
+         * (ending in {@code Z}) and times with a known {@code TZID} are converted,
+         * floating times are kept.
+         */
+        private LocalDateTime parseDateTime(String name) throws BiscuitException {
+            String value = values.get(name).trim();
+            LocalDateTime dateTime = null;
+            try {
+                if (value.length() >= 15 && value.charAt(8) == 'T') {
+                    dateTime = LocalDateTime.of(digits(value, 0, 4), digits(value, 4, 6), digits(value, 6, 8),
+                            digits(value, 9, 11), digits(value, 11, 13), digits(value, 13, 15));
+                }
+            } catch (DateTimeException | NumberFormatException e) {
+                // reported below
+            }
+            boolean isUtc = value.length() == 16 && Character.toUpperCase(value.charAt(15)) == 'Z';
+            if (dateTime == null || (value.length() != 15 && !isUtc)) {
+                throw new BiscuitException("Invalid " + name + " date-time: " + value);
+            }
+
+            ZoneId zone = isUtc ? ZoneOffset.UTC : findZone(parameters.get(name));
+            if (zone == null) {
+                return dateTime;
+            }
+            return LocalDateTime.ofInstant(dateTime.atZone(zone).toInstant(), ZoneId.systemDefault());
+        }
+
+        private static int digits(String text, int from, int to) {
+            int value = 0;
+            for (int i = from; i < to; i++) {
+                char c = text.charAt(i);
+                if (c < '0' || c > '9') {
+                    throw new NumberFormatException();
+                }
+                value = value * 10 + (c - '0');
+            }
+            return value;
+        }
+
+        /**
+         * Returns the zone of a {@code TZID} parameter, or null if there is none or
+         * it is not a zone Java knows (such as a Windows zone name), in which case
+         * the time is taken as local.
+         */
+        private ZoneId findZone(String parameterText) {
+            int at = parameterText.toUpperCase(Locale.ROOT).indexOf("TZID=");
+            if (at < 0) {
+                return null;
+            }
+            int end = parameterText.indexOf(';', at);
+            String id = parameterText.substring(at + 5, (end < 0) ? parameterText.length() : end).replace("\"", "");
+            return zones.computeIfAbsent(id, key -> {
+                try {
+                    return Optional.of(ZoneId.of(key));
+                } catch (DateTimeException e) {
+                    return Optional.empty();
+                }
+            }).orElse(null);
+        }
+
+        private static Duration parseDuration(String raw) throws BiscuitException {
+            String value = raw.trim().toUpperCase(Locale.ROOT);
+            try {
+                int weeks = value.indexOf('W');
+                if (weeks > 0) {
+                    int sign = value.startsWith("-") ? -1 : 1;
+                    int digitsFrom = value.indexOf('P') + 1;
+                    return Duration.ofDays(sign * 7L * Long.parseLong(value.substring(digitsFrom, weeks)));
+                }
+                return Duration.parse(value);
+            } catch (DateTimeException | NumberFormatException e) {
+                throw new BiscuitException("Invalid DURATION: " + raw);
+            }
+        }
+    }
+}
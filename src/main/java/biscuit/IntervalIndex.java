@@ -0,0 +1,240 @@
+package biscuit;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Index of tasks by a closed time interval, for range queries over task dates.
+ * <p>
+ * Implemented as a treap ordered by interval start, where every node also records
+ * the largest interval end in its subtree. Overlap queries skip every subtree
+ * whose largest end is before the query range, and stop at nodes starting after
+ * it, so they visit O(log n + k) nodes in the usual case. Every node also knows
+ * the size of its subtree, so a window of the tasks in start order can be read
+ * from any position in O(log n + k) as well.
+ */
+final class IntervalIndex {
+
+    private Node root;
+    private long nextTieBreaker;
+    private final Map<Task, Node> nodeOf = new IdentityHashMap<>();
+
+    /**
+     * Adds a task covering {@code [start, end]}.
+     *
+     * @param task  Task to index.
+     * @param start Start of the interval.
+     * @param end   End of the interval (inclusive), not before {@code start}.
+     */
+    void add(Task task, long start, long end) {
+        assert start <= end : "Interval end should not be before its start";
+        assert !nodeOf.containsKey(task) : "Task is already indexed";
+
+        Node node = new Node(task, start, end, nextTieBreaker++);
+        nodeOf.put(task, node);
+        root = insert(root, node);
+    }
+
+    /**
+     * Removes a task from the index. Does nothing if the task is not indexed.
+     *
+     * @param task Task to remove.
+     */
+    void remove(Task task) {
+        Node node = nodeOf.remove(task);
+        if (node != null) {
+            root = delete(root, node);
+        }
+    }
+
+    int size() {
+        return size(root);
+    }
+
+    /**
+     * Returns a window of the tasks ordered by interval start (then by insertion
+     * order). Only the nodes on the path to the first task and those in the window
+     * are visited.
+     *
+     * @param skip  Number of leading tasks to skip.
+     * @param limit Maximum number of tasks to return.
+     * @return Tasks in the window, in order.
+     */
+    List<Task> inOrder(int skip, int limit) {
+        List<Task> window = new ArrayList<>(Math.max(0, Math.min(limit, size() - skip)));
+
+        // descend to the task at position skip, keeping the ancestors still to be visited
+        Deque<Node> pending = new ArrayDeque<>();
+        Node node = root;
+        int remaining = skip;
+        while (node != null) {
+            int leftSize = size(node.left);
+            if (remaining < leftSize) {
+                pending.push(node);
+                node = node.left;
+            } else if (remaining == leftSize) {
+                pending.push(node);
+                break;
+            } else {
+                remaining -= leftSize + 1;
+                node = node.right;
+            }
+        }
+
+        while (!pending.isEmpty() && window.size() < limit) {
+            Node current = pending.pop();
+            window.add(current.task);
+            for (Node next = current.right; next != null; next = next.left) {
+                pending.push(next);
+            }
+        }
+        return window;
+    }
+
+    /**
+     * Returns the tasks whose interval overlaps {@code [from, to]}, ordered by
+     * interval start (then by insertion order).
+     *
+     * @param from Start of the query range.
+     * @param to   End of the query range (inclusive).
+     * @return Overlapping tasks.
+     */
+    List<Task> overlapping(long from, long to) {
+        List<Task> matches = new ArrayList<>();
+        collect(root, from, to, matches);
+        return matches;
+    }
+
+    private static void collect(Node node, long from, long to, List<Task> matches) {
+        if (node == null || node.maxEnd < from) {
+            return;
+        }
+        collect(node.left, from, to, matches);
+        if (node.start > to) {
+            return;
+        }
+        if (node.end >= from) {
+            matches.add(node.task);
+        }
+        collect(node.right, from, to, matches);
+    }
+
+    private static int size(Node node) {
+        return (node == null) ? 0 : node.size;
+    }
+
+    private static Node insert(Node node, Node added) {
+        if (node == null) {
+            return added;
+        }
+        if (added.priority > node.priority) {
+            Node[] halves = split(node, added);
+            added.left = halves[0];
+            added.right = halves[1];
+            added.update();
+            return added;
+        }
+        if (added.isBefore(node)) {
+            node.left = insert(node.left, added);
+        } else {
+            node.right = insert(node.right, added);
+        }
+        node.update();
+        return node;
+    }
+
+    private static Node delete(Node node, Node removed) {
+        if (node == removed) {
+            return merge(node.left, node.right);
+        }
+        if (removed.isBefore(node)) {
+            node.left = delete(node.left, removed);
+        } else {
+            node.right = delete(node.right, removed);
+        }
+        node.update();
+        return node;
+    }
+
+    /**
+     * Splits a subtree into the nodes ordered before {@code pivot} and the rest.
+     */
+    private static Node[] split(Node node, Node pivot) {
+        if (node == null) {
+            return new Node[] {null, null};
+        }
+        if (node.isBefore(pivot)) {
+            Node[] halves = split(node.right, pivot);
+            node.right = halves[0];
+            node.update();
+            halves[0] = node;
+            return halves;
+        }
+        Node[] halves = split(node.left, pivot);
+        node.left = halves[1];
+        node.update();
+        halves[1] = node;
+        return halves;
+    }
+
+    /**
+     * Joins two subtrees where every node of {@code left} is ordered before every
+     * node of {@code right}.
+     */
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            left.update();
+            return left;
+        }
+        right.left = merge(left, right.left);
+        right.update();
+        return right;
+    }
+
+    private static final class Node {
+        private final Task task;
+        private final long start;
+        private final long end;
+        private final long tieBreaker;
+        private final int priority = ThreadLocalRandom.current().nextInt();
+        private long maxEnd;
+        private int size = 1;
+        private Node left;
+        private Node right;
+
+        private Node(Task task, long start, long end, long tieBreaker) {
+            this.task = task;
+            this.start = start;
+            this.end = end;
+            this.tieBreaker = tieBreaker;
+            this.maxEnd = end;
+        }
+
+        private boolean isBefore(Node other) {
+            return start < other.start || (start == other.start && tieBreaker < other.tieBreaker);
+        }
+
+        private void update() {
+            size = 1 + IntervalIndex.size(left) + IntervalIndex.size(right);
+            maxEnd = end;
+            if (left != null && left.maxEnd > maxEnd) {
+                maxEnd = left.maxEnd;
+            }
+            if (right != null && right.maxEnd > maxEnd) {
+                maxEnd = right.maxEnd;
+            }
+        }
+    }
+}
@@ -1,12 +1,33 @@
 package biscuit;
 
+import java.util.Set;
+
 import javafx.application.Application;
 
 /**
  * A launcher class to workaround classpath issues.
+ * <p>
+ * With {@code --cli}, {@code --batch} or {@code --server} as the first argument,
+ * the text interface is started through {@link Biscuit#main(String[])} instead,
+ * and no JavaFX class is loaded. Otherwise the GUI starts.
  */
 public class Launcher {
+
+    private static final Set<String> HEADLESS_FLAGS = Set.of("--cli", "--batch", "--server");
+
     public static void main(String[] args) {
+        if (args.length > 0 && HEADLESS_FLAGS.contains(args[0])) {
+            Biscuit.main(args);
+            return;
+        }
+        launchGui(args);
+    }
+
+    /**
+     * Kept out of {@link #main(String[])} so that JavaFX is only resolved when the
+     * GUI is actually started.
+     */
+    private static void launchGui(String[] args) {
         Application.launch(Main.class, args);
     }
 }
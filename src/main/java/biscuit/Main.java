@@ -3,6 +3,7 @@ package biscuit;
 import java.io.IOException;
 
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
 import javafx.scene.layout.AnchorPane;
@@ -13,19 +14,53 @@ import javafx.stage.Stage;
  */
 public class Main extends Application {
 
-    private Biscuit biscuit = new Biscuit();
+    private static final long FLUSH_INTERVAL_MILLIS = 500;
+    private static final int MAX_DIRTY_RECORDS = 256;
+    // set by StartupProbe, which times the launch up to the first shown window
+    private static final String EXIT_AFTER_STARTUP_PROPERTY = "biscuit.exitAfterStartup";
+
+    private Biscuit biscuit = new Biscuit(createStorage());
+    private MainWindow window;
 
     @Override
     public void start(Stage stage) {
+        Metrics.getInstance().registerMBean();
         try {
             FXMLLoader fxmlLoader = new FXMLLoader(Main.class.getResource("/view/MainWindow.fxml"));
             AnchorPane ap = fxmlLoader.load();
             Scene scene = new Scene(ap);
             stage.setScene(scene);
-            fxmlLoader.<MainWindow>getController().setBiscuit(biscuit); // inject the Biscuit instance
+            window = fxmlLoader.getController();
+            window.setBiscuit(biscuit); // inject the Biscuit instance
+            biscuit.enableReminders(window::showReminder);
             stage.show();
+            if (Boolean.getBoolean(EXIT_AFTER_STARTUP_PROPERTY)) {
+                Platform.runLater(Platform::exit);
+            }
         } catch (IOException e) {
             throw new IllegalStateException("Failed to load /view/MainWindow.fxml", e);
         }
     }
+
+    @Override
+    public void stop() {
+        if (window != null) {
+            window.close();
+        }
+        try {
+            biscuit.shutdown();
+        } catch (BiscuitException e) {
+            System.err.println(e.getMessage());
+        }
+    }
+
+    /**
+     * Creates the storage used by the GUI. Writes happen in the background so that
+     * the JavaFX thread never waits on the disk.
+     */
+    private static Storage createStorage() {
+        Storage storage = new Storage();
+        storage.enableWriteBehind(FLUSH_INTERVAL_MILLIS, MAX_DIRTY_RECORDS);
+        return storage;
+    }
 }
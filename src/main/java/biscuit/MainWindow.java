@@ -1,34 +1,47 @@
 package biscuit;
 
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
-import javafx.scene.control.ScrollPane;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
 import javafx.scene.control.TextField;
 import javafx.scene.image.Image;
 import javafx.scene.layout.AnchorPane;
-import javafx.scene.layout.VBox;
 
 /**
  * Controller for the main GUI.
+ * <p>
+ * The conversation is shown in a {@link ListView}, which only creates dialog boxes
+ * for the visible rows and reuses them while scrolling, over a bounded
+ * {@link ChatHistory}. Rendering cost and memory therefore stay flat however long
+ * the session runs.
  */
 public class MainWindow extends AnchorPane {
+    private static final int HISTORY_CAPACITY = 500;
+    private static final Path HISTORY_SPILL_PATH = Paths.get("data", "chat-history.log");
+    private static final double CELL_SIDE_PADDING = 20.0;
+
     @FXML
-    private ScrollPane scrollPane;
-    @FXML
-    private VBox dialogContainer;
+    private ListView<ChatMessage> dialogList;
     @FXML
     private TextField userInput;
     @FXML
     private Button sendButton;
 
     private Biscuit biscuit;
+    private final ChatHistory history = new ChatHistory(HISTORY_CAPACITY, HISTORY_SPILL_PATH);
 
     private Image userImage = new Image(this.getClass().getResourceAsStream("/images/DaUser.png"));
     private Image biscuitImage = new Image(this.getClass().getResourceAsStream("/images/DaBiscuit.jpg"));
 
     @FXML
     public void initialize() {
-        scrollPane.vvalueProperty().bind(dialogContainer.heightProperty());
+        dialogList.setItems(history.getMessages());
+        dialogList.setCellFactory(list -> new DialogCell());
     }
 
     /** Injects the Biscuit instance */
@@ -37,17 +50,66 @@ public class MainWindow extends AnchorPane {
     }
 
     /**
-     * Creates two dialog boxes, one echoing user input and the other containing
-     * Biscuit's reply and then appends them to
-     * the dialog container. Clears the user input after processing.
+     * Adds two messages to the conversation, one echoing user input and the other
+     * containing Biscuit's reply, and scrolls to the latest one. Clears the user
+     * input after processing.
      */
     @FXML
     private void handleUserInput() {
         String input = userInput.getText();
         String response = biscuit.getResponse(input);
-        dialogContainer.getChildren().addAll(
-                DialogBox.getUserDialog(input, userImage),
-                DialogBox.getBiscuitDialog(response, biscuitImage));
+        history.add(new ChatMessage(input, true));
+        history.add(new ChatMessage(response, false));
+        dialogList.scrollTo(history.getMessages().size() - 1);
         userInput.clear();
     }
+
+    /**
+     * Finishes writing the dropped conversation to the history file. Call this once
+     * when the application exits.
+     */
+    public void close() {
+        history.close();
+    }
+
+    /**
+     * Adds a reminder from Biscuit to the conversation and scrolls to it. May be
+     * called from any thread; the conversation is updated on the JavaFX thread.
+     *
+     * @param message Reminder message.
+     */
+    public void showReminder(String message) {
+        Platform.runLater(() -> {
+            history.add(new ChatMessage(message, false));
+            dialogList.scrollTo(history.getMessages().size() - 1);
+        });
+    }
+
+    /**
+     * List cell that shows a message in a single reused {@link DialogBox}.
+     */
+    private class DialogCell extends ListCell<ChatMessage> {
+        private final DialogBox dialogBox = DialogBox.getUserDialog("", userImage);
+
+        private DialogCell() {
+            dialogBox.prefWidthProperty().bind(dialogList.widthProperty().subtract(CELL_SIDE_PADDING));
+            setPrefWidth(0);
+        }
+
+        @Override
+        protected void updateItem(ChatMessage message, boolean isEmpty) {
+            super.updateItem(message, isEmpty);
+            if (isEmpty || message == null) {
+                setGraphic(null);
+                return;
+            }
+
+            if (message.isFromUser()) {
+                dialogBox.showMessage(message.getText(), userImage, false);
+            } else {
+                dialogBox.showMessage(message.getText(), biscuitImage, true);
+            }
+            setGraphic(dialogBox);
+        }
+    }
 }
@@ -0,0 +1,433 @@
+package biscuit;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Counts commands and times them, together with the storage work behind them,
+ * for every {@link Biscuit} in the process.
+ * <p>
+ * Recording a value only increments a few {@link LongAdder}s, so metrics are
+ * always on and threads recording at the same time do not contend. Durations
+ * and sizes go into {@link Histogram}s with power-of-two buckets, which bound
+ * percentiles to within a factor of two without keeping the samples.
+ * <p>
+ * The figures are shown by the {@code stats} command, published over JMX by
+ * {@link #registerMBean()}, and can be printed periodically with
+ * {@link #startLogging(long, PrintStream)}.
+ */
+final class Metrics implements MetricsMXBean {
+
+    static final String MBEAN_NAME = "biscuit:type=Metrics";
+
+    private static final Command[] COMMANDS = Command.values();
+    private static final Metrics INSTANCE = new Metrics();
+
+    private final Histogram[] commandLatencies = new Histogram[COMMANDS.length];
+    private final LongAdder[] commandErrors = new LongAdder[COMMANDS.length];
+    private final Histogram parseLatency = new Histogram();
+    private final LongAdder parseErrors = new LongAdder();
+    private final Histogram loadLatency = new Histogram();
+    private final LongAdder loadedTasks = new LongAdder();
+    private final Histogram snapshotLatency = new Histogram();
+    private final LongAdder snapshotBytes = new LongAdder();
+    private final Histogram journalLatency = new Histogram();
+    private final Histogram findResults = new Histogram();
+    private boolean isRegistered;
+
+    /**
+     * Creates an empty set of metrics. Everything but tests should use
+     * {@link #getInstance()}.
+     */
+    Metrics() {
+        for (int i = 0; i < COMMANDS.length; i++) {
+            commandLatencies[i] = new Histogram();
+            commandErrors[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Returns the metrics shared by the whole process.
+     *
+     * @return Process-wide metrics.
+     */
+    static Metrics getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Records the time taken to parse one command.
+     *
+     * @param nanos    Parse time in nanoseconds.
+     * @param isFailed True if the input could not be parsed.
+     */
+    void recordParse(long nanos, boolean isFailed) {
+        parseLatency.record(nanos);
+        if (isFailed) {
+            parseErrors.increment();
+        }
+    }
+
+    /**
+     * Records one executed command.
+     *
+     * @param command  Command that ran.
+     * @param nanos    Time from the end of parsing to the response, including
+     *                 any wait for the task list lock.
+     * @param isFailed True if the command threw a {@link BiscuitException}.
+     */
+    void recordCommand(Command command, long nanos, boolean isFailed) {
+        commandLatencies[command.ordinal()].record(nanos);
+        if (isFailed) {
+            commandErrors[command.ordinal()].increment();
+        }
+    }
+
+    /**
+     * Records one load of a data file, including the journal replay.
+     *
+     * @param nanos     Load time in nanoseconds.
+     * @param taskCount Number of tasks loaded.
+     */
+    void recordLoad(long nanos, int taskCount) {
+        loadLatency.record(nanos);
+        loadedTasks.add(taskCount);
+    }
+
+    /**
+     * Records one snapshot written to disk.
+     *
+     * @param nanos Write time in nanoseconds.
+     * @param bytes Size of the snapshot.
+     */
+    void recordSnapshotSave(long nanos, long bytes) {
+        snapshotLatency.record(nanos);
+        snapshotBytes.add(bytes);
+    }
+
+    /**
+     * Records one write of journal records to disk.
+     *
+     * @param nanos Write time in nanoseconds.
+     */
+    void recordJournalWrite(long nanos) {
+        journalLatency.record(nanos);
+    }
+
+    /**
+     * Records the number of tasks one search returned.
+     *
+     * @param resultCount Number of matching tasks.
+     */
+    void recordFindResults(int resultCount) {
+        findResults.record(resultCount);
+    }
+
+    /**
+     * Publishes these metrics on the platform MBean server under
+     * {@value #MBEAN_NAME}. Later calls do nothing.
+     */
+    synchronized void registerMBean() {
+        if (isRegistered) {
+            return;
+        }
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            server.registerMBean(this, new ObjectName(MBEAN_NAME));
+            isRegistered = true;
+        } catch (JMException e) {
+            System.err.println("Failed to register metrics over JMX: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Prints the summary to {@code out} every {@code intervalSeconds}, on a daemon
+     * thread, until the process exits.
+     *
+     * @param intervalSeconds Seconds between two reports.
+     * @param out             Stream to print the reports to.
+     */
+    void startLogging(long intervalSeconds, PrintStream out) {
+        assert intervalSeconds > 0 : "Logging interval should be positive";
+
+        ScheduledExecutorService logger = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "biscuit-metrics-logger");
+            thread.setDaemon(true);
+            return thread;
+        });
+        logger.scheduleAtFixedRate(() -> out.println(getSummary()), intervalSeconds, intervalSeconds,
+                TimeUnit.SECONDS);
+    }
+
+    @Override
+    public String getSummary() {
+        StringBuilder sb = new StringBuilder();
+        boolean hasCommands = false;
+        for (int i = 0; i < COMMANDS.length; i++) {
+            Histogram latency = commandLatencies[i];
+            if (latency.getCount() == 0) {
+                continue;
+            }
+            if (!hasCommands) {
+                sb.append(String.format("%-12s %8s %6s %9s %9s %9s %9s\n",
+                        "Command", "count", "errors", "mean", "p50", "p99", "max"));
+                hasCommands = true;
+            }
+            sb.append(String.format("%-12s %8d %6d %9s %9s %9s %9s\n", keywordOf(COMMANDS[i]),
+                    latency.getCount(), commandErrors[i].sum(), formatNanos(latency.getMean()),
+                    formatNanos(latency.getPercentile(0.5)), formatNanos(latency.getPercentile(0.99)),
+                    formatNanos(latency.getMax())));
+        }
+        if (!hasCommands) {
+            sb.append("No commands run yet.\n");
+        }
+
+        sb.append("Parsing: ").append(parseLatency.getCount()).append(" inputs, ")
+                .append(parseErrors.sum()).append(" rejected, mean ")
+                .append(formatNanos(parseLatency.getMean())).append('\n');
+        sb.append("Loading: ").append(loadLatency.getCount()).append(" loads, ")
+                .append(loadedTasks.sum()).append(" tasks, mean ")
+                .append(formatNanos(loadLatency.getMean())).append(", max ")
+                .append(formatNanos(loadLatency.getMax())).append('\n');
+        sb.append("Snapshot saves: ").append(snapshotLatency.getCount()).append(", ")
+                .append(formatBytes(snapshotBytes.sum())).append(" written, mean ")
+                .append(formatNanos(snapshotLatency.getMean())).append(", max ")
+                .append(formatNanos(snapshotLatency.getMax())).append('\n');
+        sb.append("Journal writes: ").append(journalLatency.getCount()).append(", mean ")
+                .append(formatNanos(journalLatency.getMean())).append(", p99 ")
+                .append(formatNanos(journalLatency.getPercentile(0.99))).append('\n');
+        sb.append("Find results: ").append(findResults.getCount()).append(" searches, mean ")
+                .append(String.format(Locale.ROOT, "%.1f", findResults.getMean())).append(", p99 ")
+                .append(findResults.getPercentile(0.99)).append(", max ").append(findResults.getMax());
+        return sb.toString();
+    }
+
+    @Override
+    public Map<String, Long> getCommandCounts() {
+        return perCommand(Histogram::getCount);
+    }
+
+    @Override
+    public Map<String, Long> getCommandErrors() {
+        Map<String, Long> errors = new LinkedHashMap<>();
+        for (Command command : COMMANDS) {
+            errors.put(keywordOf(command), commandErrors[command.ordinal()].sum());
+        }
+        return errors;
+    }
+
+    @Override
+    public Map<String, Double> getCommandMeanMicros() {
+        Map<String, Double> means = new LinkedHashMap<>();
+        for (Command command : COMMANDS) {
+            means.put(keywordOf(command), commandLatencies[command.ordinal()].getMean() / 1_000);
+        }
+        return means;
+    }
+
+    @Override
+    public Map<String, Long> getCommandP99Micros() {
+        return perCommand(latency -> latency.getPercentile(0.99) / 1_000);
+    }
+
+    @Override
+    public long getParseErrors() {
+        return parseErrors.sum();
+    }
+
+    @Override
+    public double getParseMeanMicros() {
+        return parseLatency.getMean() / 1_000;
+    }
+
+    @Override
+    public long getLoadCount() {
+        return loadLatency.getCount();
+    }
+
+    @Override
+    public long getLoadedTasks() {
+        return loadedTasks.sum();
+    }
+
+    @Override
+    public double getLoadMeanMillis() {
+        return loadLatency.getMean() / 1_000_000;
+    }
+
+    @Override
+    public long getSnapshotSaveCount() {
+        return snapshotLatency.getCount();
+    }
+
+    @Override
+    public long getSnapshotBytes() {
+        return snapshotBytes.sum();
+    }
+
+    @Override
+    public double getSnapshotSaveMeanMillis() {
+        return snapshotLatency.getMean() / 1_000_000;
+    }
+
+    @Override
+    public long getJournalWriteCount() {
+        return journalLatency.getCount();
+    }
+
+    @Override
+    public double getJournalWriteMeanMillis() {
+        return journalLatency.getMean() / 1_000_000;
+    }
+
+    @Override
+    public long getFindCount() {
+        return findResults.getCount();
+    }
+
+    @Override
+    public double getFindMeanResults() {
+        return findResults.getMean();
+    }
+
+    @Override
+    public long getFindMaxResults() {
+        return findResults.getMax();
+    }
+
+    @Override
+    public void reset() {
+        for (int i = 0; i < COMMANDS.length; i++) {
+            commandLatencies[i].reset();
+            commandErrors[i].reset();
+        }
+        parseLatency.reset();
+        parseErrors.reset();
+        loadLatency.reset();
+        loadedTasks.reset();
+        snapshotLatency.reset();
+        snapshotBytes.reset();
+        journalLatency.reset();
+        findResults.reset();
+    }
+
+    private Map<String, Long> perCommand(ToLongFunction<Histogram> statistic) {
+        Map<String, Long> values = new LinkedHashMap<>();
+        for (Command command : COMMANDS) {
+            values.put(keywordOf(command), statistic.applyAsLong(commandLatencies[command.ordinal()]));
+        }
+        return values;
+    }
+
+    private static String keywordOf(Command command) {
+        return command.name().toLowerCase(Locale.ROOT);
+    }
+
+    static String formatNanos(double nanos) {
+        if (nanos < 1_000) {
+            return String.format(Locale.ROOT, "%.0f ns", nanos);
+        }
+        if (nanos < 1_000_000) {
+            return String.format(Locale.ROOT, "%.1f us", nanos / 1_000);
+        }
+        if (nanos < 1_000_000_000) {
+            return String.format(Locale.ROOT, "%.1f ms", nanos / 1_000_000);
+        }
+        return String.format(Locale.ROOT, "%.2f s", nanos / 1_000_000_000);
+    }
+
+    static String formatBytes(long bytes) {
+        if (bytes < 1024) {
+            return bytes + " B";
+        }
+        if (bytes < 1024 * 1024) {
+            return String.format(Locale.ROOT, "%.1f KB", bytes / 1024.0);
+        }
+        return String.format(Locale.ROOT, "%.1f MB", bytes / (1024.0 * 1024));
+    }
+
+    /**
+     * Distribution of non-negative values in power-of-two buckets: bucket 0 holds
+     * 0, and bucket {@code b} holds the values from {@code 2^(b-1)} to
+     * {@code 2^b - 1}.
+     */
+    static final class Histogram {
+        private static final int BUCKET_COUNT = 64;
+
+        private final LongAdder[] buckets = new LongAdder[BUCKET_COUNT];
+        private final LongAdder count = new LongAdder();
+        private final LongAdder sum = new LongAdder();
+        private final LongAccumulator max = new LongAccumulator(Long::max, 0);
+
+        Histogram() {
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        void record(long value) {
+            long clamped = Math.max(value, 0);
+            buckets[Math.min(64 - Long.numberOfLeadingZeros(clamped), BUCKET_COUNT - 1)].increment();
+            count.increment();
+            sum.add(clamped);
+            max.accumulate(clamped);
+        }
+
+        long getCount() {
+            return count.sum();
+        }
+
+        long getMax() {
+            return max.get();
+        }
+
+        double getMean() {
+            long n = count.sum();
+            return (n == 0) ? 0 : (double) sum.sum() / n;
+        }
+
+        /**
+         * Returns an upper bound of the given percentile: the top of the bucket
+         * holding it, or the maximum if that is smaller.
+         *
+         * @param fraction Percentile as a fraction between 0 and 1.
+         * @return Upper bound of the percentile, or 0 if nothing was recorded.
+         */
+        long getPercentile(double fraction) {
+            assert fraction >= 0 && fraction <= 1 : "Percentile should be between 0 and 1";
+
+            long target = (long) Math.ceil(fraction * count.sum());
+            long seen = 0;
+            for (int b = 0; b < BUCKET_COUNT; b++) {
+                seen += buckets[b].sum();
+                if (seen >= target && seen > 0) {
+                    long bucketTop = (b == 0) ? 0 : (b == BUCKET_COUNT - 1) ? Long.MAX_VALUE : (1L << b) - 1;
+                    return Math.min(bucketTop, getMax());
+                }
+            }
+            return getMax();
+        }
+
+        void reset() {
+            for (LongAdder bucket : buckets) {
+                bucket.reset();
+            }
+            count.reset();
+            sum.reset();
+            max.reset();
+        }
+    }
+}
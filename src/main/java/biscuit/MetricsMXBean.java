@@ -0,0 +1,59 @@
+package biscuit;
+
+import java.util.Map;
+
+/**
+ * Management interface of the Biscuit metrics, registered as
+ * {@code biscuit:type=Metrics} so that tools such as JConsole can read them.
+ * <p>
+ * Maps are keyed by the command keyword (e.g. {@code todo}). Percentiles are
+ * upper bounds, accurate to within a factor of two.
+ */
+public interface MetricsMXBean {
+
+    Map<String, Long> getCommandCounts();
+
+    Map<String, Long> getCommandErrors();
+
+    Map<String, Double> getCommandMeanMicros();
+
+    Map<String, Long> getCommandP99Micros();
+
+    long getParseErrors();
+
+    double getParseMeanMicros();
+
+    long getLoadCount();
+
+    long getLoadedTasks();
+
+    double getLoadMeanMillis();
+
+    long getSnapshotSaveCount();
+
+    long getSnapshotBytes();
+
+    double getSnapshotSaveMeanMillis();
+
+    long getJournalWriteCount();
+
+    double getJournalWriteMeanMillis();
+
+    long getFindCount();
+
+    double getFindMeanResults();
+
+    long getFindMaxResults();
+
+    /**
+     * Returns the same report as the {@code stats} command.
+     *
+     * @return Multi-line summary of all metrics.
+     */
+    String getSummary();
+
+    /**
+     * Clears every counter and histogram.
+     */
+    void reset();
+}
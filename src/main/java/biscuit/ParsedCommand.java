@@ -0,0 +1,101 @@
+package biscuit;
+
+/**
+ * Holds one line of user input split into its command, positional text and
+ * {@code /name value} options.
+ * <p>
+ * Instances are created by {@link Parser#parseCommand(String)}.
+ */
+public final class ParsedCommand {
+    private final Command command;
+    private final String args;
+    private final String text;
+    private final String[] optionValues;
+
+    /**
+     * Creates a parsed command.
+     *
+     * @param command      The command named by the first word.
+     * @param args         Everything after the first word, trimmed.
+     * @param text         Text before the first option, trimmed.
+     * @param optionValues Option values, indexed like {@link Command#getOptionNames()};
+     *                     {@code null} where the option was not given.
+     */
+    ParsedCommand(Command command, String args, String text, String[] optionValues) {
+        assert command != null : "Command should not be null";
+        assert optionValues.length == command.getOptionNames().length : "One value slot per option";
+
+        this.command = command;
+        this.args = args;
+        this.text = text;
+        this.optionValues = optionValues;
+    }
+
+    public Command getCommand() {
+        return command;
+    }
+
+    /**
+     * Returns everything after the command keyword, options included.
+     *
+     * @return Trimmed arguments, or an empty string if there are none.
+     */
+    public String getArgs() {
+        return args;
+    }
+
+    /**
+     * Returns the text before the first option.
+     *
+     * @return Trimmed positional text, or an empty string if there is none.
+     */
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * Checks whether any option was given.
+     *
+     * @return True if at least one option was given.
+     */
+    public boolean hasOptions() {
+        for (String value : optionValues) {
+            if (value != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the value of the given option.
+     *
+     * @param name Option name without the slash; must be one the command accepts.
+     * @return The trimmed value, or {@code null} if the option was not given.
+     */
+    public String getOption(String name) {
+        String[] names = command.getOptionNames();
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(name)) {
+                return optionValues[i];
+            }
+        }
+        throw new AssertionError("Command " + command + " has no option /" + name);
+    }
+
+    /**
+     * Returns the value of the given option, which the user must have given.
+     *
+     * @param name  Option name without the slash.
+     * @param usage Error message to use if the option is missing.
+     * @return The trimmed value.
+     * @throws BiscuitException If the option was not given.
+     */
+    public String requireOption(String name, String usage) throws BiscuitException {
+        String value = getOption(name);
+        if (value == null) {
+            throw new BiscuitException(usage);
+        }
+        return value;
+    }
+}
@@ -2,8 +2,8 @@ package biscuit;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.util.BitSet;
 
 /**
  * Parses and validates user input.
@@ -12,18 +12,97 @@ import java.time.format.DateTimeParseException;
  */
 public class Parser {
 
-    private static final DateTimeFormatter DEADLINE_FMT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
-    private static final DateTimeFormatter EVENT_FMT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
-
     /**
-     * Parses a raw user command into a {@link Command}.
+     * Parses one line of user input into a {@link ParsedCommand} in a single pass.
+     * <p>
+     * The first word names the command. The rest is split at the options that
+     * command accepts: an option is {@code /name} preceded by whitespace, and its
+     * value runs up to the next option or the end of the input. Slashes anywhere
+     * else, including unknown {@code /name} words, stay part of the text.
      *
-     * @param raw Raw user input.
-     * @return Parsed {@link Command}.
-     * @throws BiscuitException If the command is unknown or invalid.
+     * @param input Raw user input.
+     * @return The parsed command.
+     * @throws BiscuitException If the input is blank, the command is unknown, or an
+     *                          option is repeated or has no value.
+     */
+    public static ParsedCommand parseCommand(String input) throws BiscuitException {
+        int end = (input == null) ? 0 : input.length();
+        while (end > 0 && Character.isWhitespace(input.charAt(end - 1))) {
+            end--;
+        }
+        int start = skipWhitespace(input, 0, end);
+        if (start == end) {
+            throw new BiscuitException("Command cannot be empty.");
+        }
+
+        int keywordEnd = start;
+        while (keywordEnd < end && !Character.isWhitespace(input.charAt(keywordEnd))) {
+            keywordEnd++;
+        }
+        Command command = Command.fromKeyword(input.substring(start, keywordEnd));
+        int argsStart = skipWhitespace(input, keywordEnd, end);
+
+        String[] names = command.getOptionNames();
+        String[] values = new String[names.length];
+        String text = null;
+        int current = -1;
+        int valueStart = argsStart;
+        for (int i = argsStart; i < end; i++) {
+            if (input.charAt(i) != '/' || (i > argsStart && !Character.isWhitespace(input.charAt(i - 1)))) {
+                continue;
+            }
+            int option = matchOption(input, i + 1, end, names);
+            if (option < 0) {
+                continue;
+            }
+            if (current < 0) {
+                text = input.substring(argsStart, i).trim();
+            } else {
+                values[current] = optionValue(input, valueStart, i, names[current]);
+            }
+            if (values[option] != null) {
+                throw new BiscuitException("Option /" + names[option] + " is given more than once.");
+            }
+            current = option;
+            valueStart = i + 1 + names[option].length();
+            i = valueStart - 1;
+        }
+        if (current < 0) {
+            text = input.substring(argsStart, end);
+        } else {
+            values[current] = optionValue(input, valueStart, end, names[current]);
+        }
+        return new ParsedCommand(command, input.substring(argsStart, end), text, values);
+    }
+
+    private static int skipWhitespace(String text, int from, int end) {
+        while (from < end && Character.isWhitespace(text.charAt(from))) {
+            from++;
+        }
+        return from;
+    }
+
+    /**
+     * Returns the index of the option name that occupies the whole word starting
+     * at {@code from}, or -1 if there is none.
      */
-    public static Command parseCommand(String raw) throws BiscuitException {
-        return Command.parse(raw);
+    private static int matchOption(String text, int from, int end, String[] names) {
+        for (int i = 0; i < names.length; i++) {
+            int wordEnd = from + names[i].length();
+            if (wordEnd <= end && text.startsWith(names[i], from)
+                    && (wordEnd == end || Character.isWhitespace(text.charAt(wordEnd)))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String optionValue(String text, int from, int to, String name) throws BiscuitException {
+        String value = text.substring(from, to).trim();
+        if (value.isEmpty()) {
+            throw new BiscuitException("Missing value for /" + name + ".");
+        }
+        return value;
     }
 
     /**
@@ -42,34 +121,107 @@ public class Parser {
     }
 
     /**
-     * Parses and validates a 1-based task index entered by the user.
+     * Parses and validates a selection of task numbers: a comma-separated list of
+     * numbers, inclusive ranges and task ids, such as {@code 3,7,10-20,#42}. A task
+     * id keeps referring to the same task while others are added or deleted. The
+     * whole selection is checked before anything is returned, so an invalid part
+     * rejects it all.
      *
-     * @param raw    Raw index string entered by the user.
+     * @param raw    Raw selection entered by the user.
      * @param tasks  Current task list.
      * @param action Action name used to tailor error messages (e.g., "mark",
      *               "delete").
-     * @return Validated 1-based index.
-     * @throws BiscuitException If the list is empty, the input is not a number, or
-     *                          is out of range.
+     * @return Selected 0-based indices, increasing and without duplicates.
+     * @throws BiscuitException If the list is empty, or a part is not a number or
+     *                          range, is out of range, is a backwards range, or
+     *                          is an unknown task id.
      */
-    public static int parseIndex(String raw, TaskList tasks, String action) throws BiscuitException {
+    public static int[] parseSelection(String raw, TaskList tasks, String action) throws BiscuitException {
         if (tasks.isEmpty()) {
             throw new BiscuitException("No tasks to " + action + " yet.");
         }
 
+        BitSet selected = new BitSet(tasks.size());
+        for (String part : raw.split(",", -1)) {
+            String trimmed = part.trim();
+            if (trimmed.startsWith("#")) {
+                selected.set(parseTaskId(trimmed, tasks));
+                continue;
+            }
+            // searching from 1 keeps "-3" a single, invalid, number
+            int dash = trimmed.indexOf('-', 1);
+            int first;
+            int last;
+            if (dash < 0) {
+                first = parseTaskNumber(trimmed, tasks.size());
+                last = first;
+            } else {
+                first = parseTaskNumber(trimmed.substring(0, dash), tasks.size());
+                last = parseTaskNumber(trimmed.substring(dash + 1), tasks.size());
+                if (first > last) {
+                    throw new BiscuitException("Invalid range " + trimmed + ": the first task number is larger "
+                            + "than the last.");
+                }
+            }
+            selected.set(first - 1, last);
+        }
+        return selected.stream().toArray();
+    }
+
+    /**
+     * Resolves a task id written as {@code #<id>} to the task's 0-based position.
+     */
+    private static int parseTaskId(String raw, TaskList tasks) throws BiscuitException {
+        long id;
+        try {
+            id = Long.parseLong(raw.substring(1).trim());
+        } catch (NumberFormatException e) {
+            throw new BiscuitException("Please enter a task id after #, e.g. #12.");
+        }
+
+        int index = tasks.indexOfId(id);
+        if (index < 0) {
+            throw new BiscuitException("No task has the id " + raw + ".");
+        }
+        return index;
+    }
+
+    private static int parseTaskNumber(String raw, int taskCount) throws BiscuitException {
         int index;
         try {
             index = Integer.parseInt(raw.trim());
         } catch (NumberFormatException e) {
-            throw new BiscuitException("Please enter a task number (1 to " + tasks.size() + ").");
+            throw new BiscuitException("Please enter a task number (1 to " + taskCount + ").");
         }
 
-        if (index < 1 || index > tasks.size()) {
-            throw new BiscuitException("Task number out of range. Enter 1 to " + tasks.size() + ".");
+        if (index < 1 || index > taskCount) {
+            throw new BiscuitException("Task number out of range. Enter 1 to " + taskCount + ".");
         }
         return index;
     }
 
+    /**
+     * Parses a whole number option value that must be at least {@code min}.
+     *
+     * @param raw        Raw option value.
+     * @param optionName Option label used in error messages (e.g. "/page").
+     * @param min        Smallest allowed value.
+     * @return Parsed number.
+     * @throws BiscuitException If the value is not a number or is below {@code min}.
+     */
+    public static int parseNumberOption(String raw, String optionName, int min) throws BiscuitException {
+        int value;
+        try {
+            value = Integer.parseInt(raw.trim());
+        } catch (NumberFormatException e) {
+            throw new BiscuitException("Please enter a number for " + optionName + ".");
+        }
+        if (value < min) {
+            throw new BiscuitException(optionName + " must be at least " + min + ".");
+        }
+        return value;
+    }
+
     /**
      * Parses a deadline date in {@code yyyy-MM-dd} format.
      *
@@ -79,7 +231,7 @@ public class Parser {
      */
     public static LocalDate parseDeadlineDate(String raw) throws BiscuitException {
         try {
-            return LocalDate.parse(raw.trim(), DEADLINE_FMT);
+            return DateFormats.parseDate(raw.trim());
         } catch (DateTimeParseException e) {
             throw new BiscuitException("Invalid deadline date. Use YYYY-MM-DD (e.g., 2026-01-20).");
         }
@@ -95,12 +247,35 @@ public class Parser {
      */
     public static LocalDate parseDate(String raw, String fieldName) throws BiscuitException {
         try {
-            return LocalDate.parse(raw.trim(), DEADLINE_FMT);
+            return DateFormats.parseDate(raw.trim());
         } catch (DateTimeParseException e) {
             throw new BiscuitException("Invalid " + fieldName + " date. Use YYYY-MM-DD (e.g., 2026-01-20).");
         }
     }
 
+    /**
+     * Parses a date range given as two {@code yyyy-MM-dd} dates separated by
+     * whitespace.
+     *
+     * @param raw   Raw text containing both dates.
+     * @param usage Usage message used if the text does not hold exactly two dates.
+     * @return Array holding the first and the last date of the range.
+     * @throws BiscuitException If a date is invalid or the range ends before it starts.
+     */
+    public static LocalDate[] parseDateRange(String raw, String usage) throws BiscuitException {
+        String[] parts = requireNonEmpty(raw, usage).split("\\s+");
+        if (parts.length != 2) {
+            throw new BiscuitException(usage);
+        }
+
+        LocalDate from = parseDate(parts[0], "start");
+        LocalDate to = parseDate(parts[1], "end");
+        if (to.isBefore(from)) {
+            throw new BiscuitException("End date must be on or after the start date.");
+        }
+        return new LocalDate[] {from, to};
+    }
+
     /**
      * Parses an event date-time in {@code yyyy-MM-dd HH:mm} format.
      *
@@ -112,25 +287,10 @@ public class Parser {
      */
     public static LocalDateTime parseEventDateTime(String raw, String fieldName) throws BiscuitException {
         try {
-            return LocalDateTime.parse(raw.trim(), EVENT_FMT);
+            return DateFormats.parseDateTime(raw.trim());
         } catch (DateTimeParseException e) {
             throw new BiscuitException(
                     "Invalid " + fieldName + " format. Use YYYY-MM-DD HH:mm (e.g., 2026-01-21 19:00).");
         }
     }
-
-    public static String parseFindKeyword(String raw) throws BiscuitException {
-        if (raw == null) {
-            throw new BiscuitException("Find command requires a keyword.");
-        }
-
-        String trimmed = raw.trim();
-        String[] parts = trimmed.split("\\s+", 2);
-
-        if (parts.length < 2 || parts[1].trim().isEmpty()) {
-            throw new BiscuitException("Find command requires a keyword.");
-        }
-
-        return parts[1].trim();
-    }
 }
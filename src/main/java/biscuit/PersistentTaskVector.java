@@ -0,0 +1,244 @@
+package biscuit;
+
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Immutable sequence of tasks with structural sharing, used by {@link TaskList}.
+ * <p>
+ * The tasks are stored in an implicit treap: a binary tree ordered by position
+ * (each node knows the size of its subtree) and heap-ordered by a random
+ * priority, which keeps it balanced in expectation. Updates copy only the
+ * O(log n) nodes on the changed path and return a new vector, so every version
+ * stays valid and can be handed to other threads as an O(1) snapshot.
+ */
+final class PersistentTaskVector {
+
+    static final PersistentTaskVector EMPTY = new PersistentTaskVector(null);
+
+    private final Node root;
+
+    private PersistentTaskVector(Node root) {
+        this.root = root;
+    }
+
+    /**
+     * Returns a vector holding the given tasks in order, built in O(n).
+     *
+     * @param tasks Tasks to hold.
+     * @return New vector.
+     */
+    static PersistentTaskVector of(List<Task> tasks) {
+        Task[] array = tasks.toArray(new Task[0]);
+        return new PersistentTaskVector(build(array, 0, array.length, 0));
+    }
+
+    int size() {
+        return size(root);
+    }
+
+    /**
+     * Returns the task at the given position.
+     *
+     * @param index 0-based position.
+     * @return Task at that position.
+     */
+    Task get(int index) {
+        assert index >= 0 && index < size() : "get(): index out of bounds: " + index;
+
+        Node node = root;
+        while (true) {
+            int leftSize = size(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index == leftSize) {
+                return node.task;
+            } else {
+                index -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    /**
+     * Returns the position of the task with the given id, in O(log n).
+     * Relies on the ids increasing along the vector, as {@link TaskList} ensures,
+     * so that the tree is also a search tree on ids.
+     *
+     * @param id Task id.
+     * @return 0-based position, or -1 if no task has that id.
+     */
+    int indexOfId(long id) {
+        Node node = root;
+        int offset = 0;
+        while (node != null) {
+            long nodeId = node.task.getId();
+            if (id < nodeId) {
+                node = node.left;
+            } else if (id > nodeId) {
+                offset += size(node.left) + 1;
+                node = node.right;
+            } else {
+                return offset + size(node.left);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns a vector with the task appended at the end.
+     *
+     * @param task Task to append.
+     * @return New vector.
+     */
+    PersistentTaskVector append(Task task) {
+        Node added = new Node(task, null, null, ThreadLocalRandom.current().nextInt());
+        return new PersistentTaskVector(merge(root, added));
+    }
+
+    /**
+     * Returns a vector without the task at the given position.
+     *
+     * @param index 0-based position.
+     * @return New vector.
+     */
+    PersistentTaskVector removeAt(int index) {
+        assert index >= 0 && index < size() : "removeAt(): index out of bounds: " + index;
+
+        return new PersistentTaskVector(removeAt(root, index));
+    }
+
+    /**
+     * Returns an unmodifiable list view of this vector. Iteration is O(n) overall;
+     * {@code get} is O(log n).
+     *
+     * @return List view sharing this vector's structure.
+     */
+    List<Task> asList() {
+        return new ListView(this);
+    }
+
+    private static int size(Node node) {
+        return (node == null) ? 0 : node.size;
+    }
+
+    /**
+     * Builds a balanced tree whose priorities decrease with depth, so that later
+     * random-priority updates keep the heap order valid.
+     */
+    private static Node build(Task[] tasks, int from, int to, int depth) {
+        if (from >= to) {
+            return null;
+        }
+        int mid = (from + to) >>> 1;
+        Node left = build(tasks, from, mid, depth + 1);
+        Node right = build(tasks, mid + 1, to, depth + 1);
+        return new Node(tasks[mid], left, right, Integer.MAX_VALUE - depth);
+    }
+
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority >= right.priority) {
+            return left.withChildren(left.left, merge(left.right, right));
+        }
+        return right.withChildren(merge(left, right.left), right.right);
+    }
+
+    private static Node removeAt(Node node, int index) {
+        int leftSize = size(node.left);
+        if (index < leftSize) {
+            return node.withChildren(removeAt(node.left, index), node.right);
+        }
+        if (index == leftSize) {
+            return merge(node.left, node.right);
+        }
+        return node.withChildren(node.left, removeAt(node.right, index - leftSize - 1));
+    }
+
+    private static final class Node {
+        private final Task task;
+        private final Node left;
+        private final Node right;
+        private final int size;
+        private final int priority;
+
+        private Node(Task task, Node left, Node right, int priority) {
+            this.task = task;
+            this.left = left;
+            this.right = right;
+            this.size = size(left) + size(right) + 1;
+            this.priority = priority;
+        }
+
+        private Node withChildren(Node newLeft, Node newRight) {
+            return new Node(task, newLeft, newRight, priority);
+        }
+    }
+
+    private static final class ListView extends AbstractList<Task> {
+        private final PersistentTaskVector vector;
+        private final int size;
+
+        private ListView(PersistentTaskVector vector) {
+            this.vector = vector;
+            this.size = vector.size();
+        }
+
+        @Override
+        public Task get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+            }
+            return vector.get(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Iterator<Task> iterator() {
+            return new InOrderIterator(vector.root);
+        }
+    }
+
+    private static final class InOrderIterator implements Iterator<Task> {
+        private final Deque<Node> path = new ArrayDeque<>();
+
+        private InOrderIterator(Node root) {
+            pushLeftSpine(root);
+        }
+
+        private void pushLeftSpine(Node node) {
+            for (Node n = node; n != null; n = n.left) {
+                path.push(n);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !path.isEmpty();
+        }
+
+        @Override
+        public Task next() {
+            if (path.isEmpty()) {
+                throw new NoSuchElementException();
+            }
+            Node node = path.pop();
+            pushLeftSpine(node.right);
+            return node.task;
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package biscuit;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Reminds the user of upcoming events, deadlines and within-period tasks.
+ * <p>
+ * An event is reminded {@link #EVENT_LEAD} before it starts, a deadline at
+ * {@link #DAY_REMINDER_TIME} on the day it is due, and a within-period task at the
+ * same time on the last day of its period. Only tasks that are not done and whose
+ * reminder is still ahead are reminded.
+ * <p>
+ * The pending reminders are kept in a queue ordered by time, with a map from each
+ * task to its reminder so that it can be dropped when the task is deleted or
+ * marked done. The queue follows the task list as a {@link TaskList.Listener}, so
+ * nothing polls or scans the list. A single timer thread sleeps until the earliest
+ * reminder, and is only rescheduled when the earliest reminder changes.
+ */
+final class ReminderScheduler implements TaskList.Listener {
+
+    static final Duration EVENT_LEAD = Duration.ofMinutes(15);
+    static final LocalTime DAY_REMINDER_TIME = LocalTime.of(9, 0);
+
+    private final Clock clock;
+    private final Consumer<String> notifier;
+    private final ScheduledExecutorService timer;
+    private final NavigableSet<Reminder> queue = new TreeSet<>();
+    private final Map<Task, Reminder> reminderOf = new IdentityHashMap<>();
+    private long nextSequence;
+    private ScheduledFuture<?> wakeUp;
+    private Instant wakeUpTime;
+
+    /**
+     * Creates a scheduler with no reminders.
+     *
+     * @param clock    Clock giving the current time and the time zone of task dates.
+     * @param notifier Receives each reminder message, on the timer thread.
+     */
+    ReminderScheduler(Clock clock, Consumer<String> notifier) {
+        this.clock = clock;
+        this.notifier = notifier;
+        timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "biscuit-reminders");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Replaces all reminders with those of the given tasks, e.g. after they are loaded.
+     *
+     * @param tasks Tasks to remind of.
+     */
+    synchronized void reset(List<Task> tasks) {
+        queue.clear();
+        reminderOf.clear();
+        Instant now = clock.instant();
+        for (Task task : tasks) {
+            schedule(task, now);
+        }
+        reschedule();
+    }
+
+    @Override
+    public synchronized void taskAdded(Task task) {
+        schedule(task, clock.instant());
+        reschedule();
+    }
+
+    @Override
+    public synchronized void taskRemoved(Task task) {
+        unschedule(task);
+        reschedule();
+    }
+
+    @Override
+    public synchronized void taskDoneChanged(Task task) {
+        if (task.isDone()) {
+            unschedule(task);
+        } else {
+            schedule(task, clock.instant());
+        }
+        reschedule();
+    }
+
+    /**
+     * Returns the time of the earliest pending reminder.
+     *
+     * @return Time of the next reminder, or null if there is none.
+     */
+    synchronized Instant getNextReminderTime() {
+        return queue.isEmpty() ? null : queue.first().time;
+    }
+
+    /**
+     * Stops the timer thread. No reminders are sent afterwards.
+     */
+    void close() {
+        timer.shutdownNow();
+    }
+
+    /**
+     * Returns the time at which the task should be reminded of.
+     *
+     * @param task  Task to remind of.
+     * @param clock Clock whose time zone the task dates are in.
+     * @return Reminder time, or null if the task has no date.
+     */
+    static Instant reminderTimeOf(Task task, Clock clock) {
+        if (task instanceof Event) {
+            return ((Event) task).getFrom().atZone(clock.getZone()).toInstant().minus(EVENT_LEAD);
+        }
+        if (task instanceof Deadline) {
+            return ((Deadline) task).getBy().atTime(DAY_REMINDER_TIME).atZone(clock.getZone()).toInstant();
+        }
+        if (task instanceof DoWithinPeriodTask) {
+            return ((DoWithinPeriodTask) task).getEnd().atTime(DAY_REMINDER_TIME).atZone(clock.getZone())
+                    .toInstant();
+        }
+        return null;
+    }
+
+    private static String formatReminder(Task task) {
+        if (task instanceof Event) {
+            return "Reminder: starting in " + EVENT_LEAD.toMinutes() + " minutes: " + task;
+        }
+        if (task instanceof Deadline) {
+            return "Reminder: due today: " + task;
+        }
+        return "Reminder: last day for: " + task;
+    }
+
+    private void schedule(Task task, Instant now) {
+        Instant time = reminderTimeOf(task, clock);
+        if (time == null || task.isDone() || time.isBefore(now) || reminderOf.containsKey(task)) {
+            return;
+        }
+        Reminder reminder = new Reminder(time, nextSequence++, task);
+        queue.add(reminder);
+        reminderOf.put(task, reminder);
+    }
+
+    private void unschedule(Task task) {
+        Reminder reminder = reminderOf.remove(task);
+        if (reminder != null) {
+            queue.remove(reminder);
+        }
+    }
+
+    /**
+     * Points the timer at the earliest reminder, unless it already is.
+     */
+    private void reschedule() {
+        Instant next = queue.isEmpty() ? null : queue.first().time;
+        if (wakeUp != null && next != null && next.equals(wakeUpTime)) {
+            return;
+        }
+        if (wakeUp != null) {
+            wakeUp.cancel(false);
+            wakeUp = null;
+        }
+        if (next != null && !timer.isShutdown()) {
+            long delayMillis = Math.max(0, Duration.between(clock.instant(), next).toMillis());
+            wakeUp = timer.schedule(this::sendDueReminders, delayMillis, TimeUnit.MILLISECONDS);
+            wakeUpTime = next;
+        }
+    }
+
+    /**
+     * Sends every reminder that is due and sets the timer for the next one. Runs on
+     * the timer thread; the messages are sent without holding the lock.
+     */
+    private void sendDueReminders() {
+        List<Task> due = new ArrayList<>();
+        synchronized (this) {
+            wakeUp = null;
+            Instant now = clock.instant();
+            while (!queue.isEmpty() && !queue.first().time.isAfter(now)) {
+                Reminder reminder = queue.pollFirst();
+                reminderOf.remove(reminder.task);
+                due.add(reminder.task);
+            }
+            reschedule();
+        }
+        for (Task task : due) {
+            notifier.accept(formatReminder(task));
+        }
+    }
+
+    /**
+     * A pending reminder. Reminders at the same time keep the order they were added in.
+     */
+    private static final class Reminder implements Comparable<Reminder> {
+        private final Instant time;
+        private final long sequence;
+        private final Task task;
+
+        private Reminder(Instant time, long sequence, Task task) {
+            this.time = time;
+            this.sequence = sequence;
+            this.task = task;
+        }
+
+        @Override
+        public int compareTo(Reminder other) {
+            int byTime = time.compareTo(other.time);
+            return (byTime != 0) ? byTime : Long.compare(sequence, other.sequence);
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package biscuit;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Inverted trigram index over task descriptions, used by {@link TaskList#find(String)}.
+ * <p>
+ * Every task gets a slot number in insertion order. For each distinct trigram of
+ * its lowercased description, the slot is appended to that trigram's posting list,
+ * so posting lists stay sorted in list order. A search walks the shortest posting
+ * list among the keyword's trigrams and confirms each candidate against the cached
+ * lowercased description, which keeps the exact substring semantics of a linear
+ * scan. Removed tasks leave dead slots behind that are skipped, and purged once
+ * they outnumber the live ones.
+ */
+final class SearchIndex {
+
+    private static final int GRAM_LENGTH = 3;
+    private static final int MIN_SLOTS_BEFORE_PURGE = 1024;
+
+    private Task[] slots = new Task[16];
+    private String[] normalized = new String[16];
+    private int slotCount;
+    private int liveCount;
+    private final Map<Task, Integer> slotOf = new IdentityHashMap<>();
+    private final Map<Long, IntList> postings = new HashMap<>();
+
+    /**
+     * Indexes a task appended to the end of the list.
+     *
+     * @param task Task to index.
+     */
+    void add(Task task) {
+        if (slotCount == slots.length) {
+            slots = Arrays.copyOf(slots, slotCount * 2);
+            normalized = Arrays.copyOf(normalized, slotCount * 2);
+        }
+
+        int slot = slotCount++;
+        String text = normalize(task.getDescription());
+        slots[slot] = task;
+        normalized[slot] = text;
+        slotOf.put(task, slot);
+        liveCount++;
+
+        for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+            IntList posting = postings.computeIfAbsent(gramAt(text, i), key -> new IntList());
+            // slots only grow, so a repeated gram of this task is always the last entry
+            if (posting.isEmpty() || posting.last() != slot) {
+                posting.add(slot);
+            }
+        }
+    }
+
+    /**
+     * Removes a task from the index.
+     *
+     * @param task Task that was removed from the list.
+     */
+    void remove(Task task) {
+        Integer slot = slotOf.remove(task);
+        if (slot == null) {
+            return;
+        }
+        slots[slot] = null;
+        normalized[slot] = null;
+        liveCount--;
+
+        if (slotCount - liveCount > Math.max(MIN_SLOTS_BEFORE_PURGE, liveCount)) {
+            purgeDeadSlots();
+        }
+    }
+
+    /**
+     * Returns the tasks whose description contains the keyword, ignoring case, in
+     * list order.
+     *
+     * @param keyword Keyword to search for.
+     * @return Matching tasks.
+     */
+    List<Task> find(String keyword) {
+        return find(keyword, 0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns a window of the tasks whose description contains the keyword,
+     * ignoring case, in list order. The search stops as soon as the window is full.
+     *
+     * @param keyword Keyword to search for.
+     * @param skip    Number of leading matches to skip.
+     * @param limit   Maximum number of matches to return.
+     * @return Matching tasks in the window.
+     */
+    List<Task> find(String keyword, int skip, int limit) {
+        String needle = normalize(keyword);
+        List<Task> matches = new ArrayList<>();
+        if (limit <= 0) {
+            return matches;
+        }
+
+        int toSkip = skip;
+        if (needle.length() < GRAM_LENGTH) {
+            for (int slot = 0; slot < slotCount; slot++) {
+                if (slots[slot] == null || !normalized[slot].contains(needle)) {
+                    continue;
+                }
+                if (toSkip > 0) {
+                    toSkip--;
+                } else if (matches.add(slots[slot]) && matches.size() == limit) {
+                    break;
+                }
+            }
+            return matches;
+        }
+
+        IntList shortest = null;
+        for (int i = 0; i + GRAM_LENGTH <= needle.length(); i++) {
+            IntList posting = postings.get(gramAt(needle, i));
+            if (posting == null) {
+                return matches;
+            }
+            if (shortest == null || posting.size() < shortest.size()) {
+                shortest = posting;
+            }
+        }
+
+        for (int i = 0; i < shortest.size(); i++) {
+            int slot = shortest.get(i);
+            if (slots[slot] == null || !normalized[slot].contains(needle)) {
+                continue;
+            }
+            if (toSkip > 0) {
+                toSkip--;
+            } else if (matches.add(slots[slot]) && matches.size() == limit) {
+                break;
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Renumbers live slots contiguously, keeping their order, and drops dead slots
+     * from every posting list.
+     */
+    private void purgeDeadSlots() {
+        int[] renumbered = new int[slotCount];
+        int next = 0;
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (slots[slot] == null) {
+                renumbered[slot] = -1;
+                continue;
+            }
+            renumbered[slot] = next;
+            slots[next] = slots[slot];
+            normalized[next] = normalized[slot];
+            slotOf.put(slots[next], next);
+            next++;
+        }
+        Arrays.fill(slots, next, slotCount, null);
+        Arrays.fill(normalized, next, slotCount, null);
+        slotCount = next;
+
+        postings.values().removeIf(posting -> posting.retainAndRenumber(renumbered) == 0);
+    }
+
+    private static String normalize(String text) {
+        return text.toLowerCase();
+    }
+
+    private static long gramAt(String text, int start) {
+        return ((long) text.charAt(start) << 32)
+                | ((long) text.charAt(start + 1) << 16)
+                | text.charAt(start + 2);
+    }
+
+    /**
+     * Growable list of {@code int} slot numbers.
+     */
+    private static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int get(int index) {
+            return values[index];
+        }
+
+        int last() {
+            return values[size - 1];
+        }
+
+        int size() {
+            return size;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        /**
+         * Maps every value through {@code renumbered}, dropping values mapped to -1.
+         *
+         * @return Number of values left.
+         */
+        int retainAndRenumber(int[] renumbered) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                int value = renumbered[values[i]];
+                if (value >= 0) {
+                    values[kept++] = value;
+                }
+            }
+            size = kept;
+            if (size < values.length / 4) {
+                values = Arrays.copyOf(values, Math.max(4, size));
+            }
+            return size;
+        }
+    }
+}
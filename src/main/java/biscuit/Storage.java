@@ -1,82 +1,1106 @@
 package biscuit;
 
+import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.time.LocalDateTime;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
 
 /**
  * Persists tasks to disk and loads them back into memory.
  * <p>
  * File format (tab-separated):
  * <ul>
- * <li>{@code T    <done>    <description>}</li>
- * <li>{@code D    <done>    <description>    <by(yyyy-MM-dd)>}</li>
- * <li>{@code E    <done>    <description>    <from(yyyy-MM-dd HH:mm)>    <to(yyyy-MM-dd HH:mm)>}</li>
+ * <li>{@code T    <done>    <description>    <id>}</li>
+ * <li>{@code D    <done>    <description>    <by(yyyy-MM-dd)>    <id>}</li>
+ * <li>{@code E    <done>    <description>    <from(yyyy-MM-dd HH:mm)>    <to(yyyy-MM-dd HH:mm)>    <id>}</li>
+ * <li>{@code P    <done>    <description>    <start(yyyy-MM-dd)>    <end(yyyy-MM-dd)>    <id>}</li>
  * </ul>
- * where {@code <done>} is {@code 0} or {@code 1}.
+ * where {@code <done>} is {@code 0} or {@code 1}, and {@code <id>} is the stable
+ * task id. Lines written before tasks had ids end without one; on load such tasks
+ * get the next id after the largest seen so far, in file and journal order, so the
+ * same data always yields the same ids until the next snapshot records them.
+ * <p>
+ * The first line, {@code next    <id>}, is the id the next new task gets. It is
+ * larger than the id of every task ever saved, including deleted ones, so that
+ * ids are never reused; see {@link #getNextId()}. Files without it are still read.
+ * <p>
+ * The data file can also be in the compact binary format of {@link BinaryTaskCodec}.
+ * The format is detected from the file header on load and kept on save; use
+ * {@link #setFormat(Format)} to convert between the two.
+ * <p>
+ * The data file is a snapshot. Mutations made after the snapshot are appended to
+ * a journal file next to it ({@code biscuit.journal}), one record per line:
+ * <ul>
+ * <li>{@code base    <crc32 of the snapshot the journal applies to>} (first line)</li>
+ * <li>{@code add     <serialized task>}</li>
+ * <li>{@code mark    <indices>}, {@code unmark    <indices>}, {@code delete    <indices>}</li>
+ * </ul>
+ * where {@code <indices>} are 0-based, increasing, and written as comma-separated
+ * numbers and inclusive ranges (e.g. {@code 2,6,9-19}), so that a bulk change is a
+ * single record. Deleted indices refer to the list before the deletion. {@link #load()} replays the journal on top of
+ * the snapshot, and {@link #save(List)} writes a fresh snapshot and discards the
+ * journal (compaction).
+ * <p>
+ * By default every call writes to disk before returning. After
+ * {@link #enableWriteBehind(long, int)}, saves and journal records are buffered in
+ * memory and written by a background thread, which merges everything that
+ * accumulated since its last run into a single write. {@link #flush()} forces the
+ * buffered writes out and waits for them.
+ * <p>
+ * Large data files are loaded in parallel: the file is split into newline-aligned
+ * chunks that are memory-mapped and parsed on the common fork/join pool, then
+ * joined back in file order.
  */
 public class Storage {
 
+    /**
+     * Encoding of the snapshot data file.
+     */
+    public enum Format {
+        TEXT,
+        BINARY
+    }
+
     private static final Path DATA_PATH = Paths.get("data", "biscuit.txt");
-    private static final DateTimeFormatter DEADLINE_STORE_FMT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
-    private static final DateTimeFormatter EVENT_STORE_FMT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+    private static final String JOURNAL_EXTENSION = ".journal";
+    private static final String NEXT_ID_HEADER = "next\t";
+    private static final int COMPACTION_MIN_RECORDS = 1024;
+    private static final long PARALLEL_LOAD_MIN_BYTES = 1L << 20;
+    private static final int LOAD_CHUNK_BYTES = 1 << 20;
+    private static final int BOUNDARY_SCAN_BYTES = 4096;
+    // Windows cannot replace a file while a mapping of it is alive, and Java only
+    // releases mappings on GC, so chunks are read into the heap there instead.
+    private static final boolean CAN_MAP_DATA_FILE = !System.getProperty("os.name", "").startsWith("Windows");
+    private static final Metrics METRICS = Metrics.getInstance();
+
+    private final Path dataPath;
+    private final Path journalPath;
+    private long parallelLoadMinBytes = PARALLEL_LOAD_MIN_BYTES;
+    private volatile Format format = Format.TEXT;
+
+    private final AtomicLong nextId = new AtomicLong(1);
+    private long snapshotChecksum;
+    private boolean isSnapshotChecksumKnown;
+    private boolean hasJournal;
+    private int journalRecords;
+
+    private final Object pendingLock = new Object();
+    private final Object diskLock = new Object();
+    private ScheduledExecutorService backgroundWriter;
+    private int maxDirtyRecords;
+    private List<Task> pendingSnapshot;
+    private final StringBuilder pendingRecords = new StringBuilder();
+    private int dirtyRecords;
+    private boolean isFlushQueued;
+    private BiscuitException writeFailure;
+
+    /**
+     * Creates a {@code Storage} backed by the default data file ({@code data/biscuit.txt}).
+     */
+    public Storage() {
+        this(DATA_PATH);
+    }
+
+    /**
+     * Creates a {@code Storage} backed by the given data file. The journal is kept
+     * in the same folder.
+     *
+     * @param dataPath Path of the snapshot data file.
+     */
+    public Storage(Path dataPath) {
+        assert dataPath != null : "Data path should not be null";
+
+        this.dataPath = dataPath;
+        this.journalPath = dataPath.resolveSibling(stripExtension(dataPath.getFileName().toString())
+                + JOURNAL_EXTENSION);
+    }
 
     /**
-     * Loads tasks from disk.
+     * Loads tasks from disk by reading the snapshot and replaying the journal on top of it.
      * If the data file (or its folder) does not exist, returns an empty list.
      *
      * @return List of loaded tasks.
      * @throws BiscuitException If the file exists but cannot be read/parsed.
      */
     public List<Task> load() throws BiscuitException {
-        if (Files.notExists(DATA_PATH)) {
-            return new ArrayList<>();
+        long start = System.nanoTime();
+        List<Task> tasks = loadSnapshot();
+        long lastId = assignMissingIds(tasks);
+        lastId = replayJournal(tasks, lastId);
+        checkIdOrder(tasks);
+        recordId(lastId);
+        METRICS.recordLoad(System.nanoTime() - start, tasks.size());
+        return tasks;
+    }
+
+    /**
+     * Saves all tasks to disk as a new snapshot and discards the journal.
+     * <p>
+     * The snapshot is written to a temporary file first and then moved over the old
+     * one, so a crash never leaves a half-written data file behind.
+     *
+     * @param tasks Tasks to save.
+     * @throws BiscuitException If the data file cannot be written.
+     */
+    public void save(List<Task> tasks) throws BiscuitException {
+        recordId(lastIdOnLoad(tasks));
+        if (backgroundWriter == null) {
+            synchronized (diskLock) {
+                writeSnapshot(tasks);
+            }
+            journalRecords = 0;
+            return;
+        }
+
+        synchronized (pendingLock) {
+            throwIfWriteFailed();
+            // the new snapshot already contains every buffered record
+            pendingSnapshot = tasks;
+            pendingRecords.setLength(0);
+            dirtyRecords = 0;
+            journalRecords = 0;
+            queueFlush();
+        }
+    }
+
+    /**
+     * Returns the id the next new task should get: one more than the largest task
+     * id loaded, saved or journaled so far, even if that task has since been
+     * deleted. It is kept in the snapshot, so ids are not reused after a restart.
+     *
+     * @return Next unused task id.
+     */
+    public long getNextId() {
+        return nextId.get();
+    }
+
+    /**
+     * Reads the id the next new task gets without loading the tasks: the id in the
+     * snapshot header, raised past the tasks added by the journal. It is never
+     * smaller than {@link #getNextId()} after a {@link #load()}, but may be larger,
+     * e.g. if the journal turns out to be stale.
+     *
+     * @return Next unused task id, or 0 if the snapshot was written before it
+     *         recorded one and has to be loaded to find out.
+     * @throws BiscuitException If the data file cannot be read.
+     */
+    public long readNextId() throws BiscuitException {
+        long next;
+        try {
+            next = readSnapshotNextId();
+        } catch (IOException e) {
+            throw new BiscuitException("Failed to read data file: " + dataPath);
+        }
+        if (next == 0 || Files.notExists(journalPath)) {
+            return next;
+        }
+
+        byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(journalPath);
+        } catch (IOException e) {
+            throw new BiscuitException("Failed to read journal file: " + journalPath);
+        }
+        // like replayJournal(), ignores a torn record after the final newline
+        int end = bytes.length;
+        while (end > 0 && bytes[end - 1] != '\n') {
+            end--;
+        }
+        for (String line : new String(bytes, 0, end, StandardCharsets.UTF_8).split("\n")) {
+            if (!line.startsWith("add\t")) {
+                continue;
+            }
+            try {
+                long id = parseLine(line.substring("add\t".length())).getId();
+                // a task without an id gets one more than the largest so far, see applyRecord()
+                next = (id == 0) ? next + 1 : Math.max(next, id + 1);
+            } catch (BiscuitException | RuntimeException e) {
+                // a corrupted record; load() reports it
+                return 0;
+            }
+        }
+        return next;
+    }
+
+    /**
+     * Returns the format snapshots are saved in.
+     *
+     * @return Current data file format.
+     */
+    public Format getFormat() {
+        return format;
+    }
+
+    /**
+     * Sets the format used by the next {@link #save(List)}. Saving afterwards
+     * converts the data file.
+     *
+     * @param format New data file format.
+     */
+    public void setFormat(Format format) {
+        assert format != null : "Format should not be null";
+
+        this.format = format;
+    }
+
+    /**
+     * Switches this storage to write-behind mode.
+     * <p>
+     * Saves and journal records are buffered and written by a background thread
+     * every {@code flushIntervalMillis}, or as soon as {@code maxDirtyRecords}
+     * journal records (or a new snapshot) are waiting. A failed background write is
+     * reported by the next call that touches this storage.
+     *
+     * @param flushIntervalMillis Delay between background flushes.
+     * @param maxDirtyRecords     Number of buffered journal records that triggers an
+     *                            immediate flush.
+     */
+    public void enableWriteBehind(long flushIntervalMillis, int maxDirtyRecords) {
+        assert flushIntervalMillis > 0 : "Flush interval should be positive";
+        assert maxDirtyRecords > 0 : "Max dirty records should be positive";
+        assert backgroundWriter == null : "Write-behind is already enabled";
+
+        this.maxDirtyRecords = maxDirtyRecords;
+        backgroundWriter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "biscuit-storage-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        backgroundWriter.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Writes out everything buffered by write-behind mode and waits for it to reach
+     * the disk. Does nothing in the default (synchronous) mode.
+     *
+     * @throws BiscuitException If a buffered write fails, now or earlier in the background.
+     */
+    public void flush() throws BiscuitException {
+        if (backgroundWriter == null) {
+            return;
+        }
+        writePending();
+        synchronized (pendingLock) {
+            throwIfWriteFailed();
+        }
+    }
+
+    /**
+     * Flushes buffered writes and stops the background writer. The storage falls back
+     * to synchronous writes afterwards.
+     *
+     * @throws BiscuitException If a buffered write fails.
+     */
+    public void close() throws BiscuitException {
+        if (backgroundWriter == null) {
+            return;
+        }
+        backgroundWriter.shutdown();
+        try {
+            backgroundWriter.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        backgroundWriter = null;
+    }
+
+    /**
+     * Appends a record for a newly added task to the journal.
+     *
+     * @param task Task that was appended to the end of the list.
+     * @throws BiscuitException If the journal cannot be written.
+     */
+    public void appendAdd(Task task) throws BiscuitException {
+        recordId(task.getId());
+        appendRecord("add\t" + serializeTask(task));
+    }
+
+    /**
+     * Appends a record for tasks being marked as done to the journal.
+     *
+     * @param indices 0-based indices of the tasks, increasing.
+     * @throws BiscuitException If the journal cannot be written.
+     */
+    public void appendMark(int... indices) throws BiscuitException {
+        appendRecord("mark\t" + formatIndices(indices));
+    }
+
+    /**
+     * Appends a record for tasks being marked as not done to the journal.
+     *
+     * @param indices 0-based indices of the tasks, increasing.
+     * @throws BiscuitException If the journal cannot be written.
+     */
+    public void appendUnmark(int... indices) throws BiscuitException {
+        appendRecord("unmark\t" + formatIndices(indices));
+    }
+
+    /**
+     * Appends a record for deleted tasks to the journal.
+     *
+     * @param indices 0-based indices the tasks had before they were removed, increasing.
+     * @throws BiscuitException If the journal cannot be written.
+     */
+    public void appendDelete(int... indices) throws BiscuitException {
+        appendRecord("delete\t" + formatIndices(indices));
+    }
+
+    /**
+     * Returns whether the journal has grown large enough that it should be folded
+     * into a new snapshot with {@link #save(List)}.
+     * <p>
+     * The threshold grows with the list, so the cost of compaction stays amortized
+     * O(1) per mutation.
+     *
+     * @param taskCount Current number of tasks.
+     * @return True if a new snapshot should be written.
+     */
+    public boolean shouldCompact(int taskCount) {
+        return journalRecords >= Math.max(COMPACTION_MIN_RECORDS, taskCount);
+    }
+
+    /**
+     * Sets the data file size from which {@link #load()} parses chunks in parallel.
+     * Used by benchmarks to compare both load paths on the same file.
+     *
+     * @param minBytes Smallest file size loaded in parallel.
+     */
+    void setParallelLoadMinBytes(long minBytes) {
+        parallelLoadMinBytes = minBytes;
+    }
+
+    private List<Task> loadSnapshot() throws BiscuitException {
+        format = Format.TEXT;
+        nextId.set(1);
+        try {
+            if (Files.exists(dataPath) && isBinaryFile(dataPath)) {
+                format = Format.BINARY;
+                return loadBinarySnapshot();
+            }
+            if (Files.exists(dataPath) && Files.size(dataPath) >= parallelLoadMinBytes) {
+                return loadSnapshotInParallel();
+            }
+        } catch (IOException e) {
+            throw new BiscuitException("Failed to read data file: " + dataPath);
         }
 
         List<Task> tasks = new ArrayList<>();
-        try (BufferedReader reader = Files.newBufferedReader(DATA_PATH, StandardCharsets.UTF_8)) {
+        CRC32 checksum = new CRC32();
+        if (Files.exists(dataPath)) {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    new CheckedInputStream(Files.newInputStream(dataPath), checksum), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    line = line.trim();
+                    if (line.isEmpty()) {
+                        continue;
+                    }
+                    if (tasks.isEmpty() && line.startsWith(NEXT_ID_HEADER)) {
+                        nextId.set(parseNextId(line));
+                        continue;
+                    }
+                    tasks.add(parseLine(line));
+                }
+            } catch (IOException e) {
+                throw new BiscuitException("Failed to read data file: " + dataPath);
+            }
+        }
+
+        snapshotChecksum = checksum.getValue();
+        isSnapshotChecksumKnown = true;
+        return tasks;
+    }
+
+    private List<Task> loadBinarySnapshot() throws IOException, BiscuitException {
+        byte[] content = Files.readAllBytes(dataPath);
+        CRC32 checksum = new CRC32();
+        checksum.update(content);
+
+        BinaryTaskCodec.Snapshot snapshot = BinaryTaskCodec.decode(ByteBuffer.wrap(content));
+        nextId.set(snapshot.nextId);
+        snapshotChecksum = checksum.getValue();
+        isSnapshotChecksumKnown = true;
+        return snapshot.tasks;
+    }
+
+    /**
+     * Returns the next id in the snapshot header, 1 if there is no snapshot, or 0 if
+     * the header does not have it.
+     */
+    private long readSnapshotNextId() throws IOException, BiscuitException {
+        if (Files.notExists(dataPath)) {
+            return 1;
+        }
+        if (isBinaryFile(dataPath)) {
+            try (InputStream in = Files.newInputStream(dataPath)) {
+                return BinaryTaskCodec.readNextId(ByteBuffer.wrap(in.readNBytes(BinaryTaskCodec.MAX_HEADER_BYTES)));
+            }
+        }
+        try (BufferedReader reader = Files.newBufferedReader(dataPath, StandardCharsets.UTF_8)) {
             String line;
             while ((line = reader.readLine()) != null) {
                 line = line.trim();
-                if (line.isEmpty()) {
-                    continue;
+                if (!line.isEmpty()) {
+                    return line.startsWith(NEXT_ID_HEADER) ? parseNextId(line) : 0;
+                }
+            }
+            return 1;
+        }
+    }
+
+    private static boolean isBinaryFile(Path path) throws IOException {
+        try (InputStream in = Files.newInputStream(path)) {
+            byte[] prefix = new byte[4];
+            int length = in.readNBytes(prefix, 0, prefix.length);
+            return BinaryTaskCodec.hasMagic(prefix, length);
+        }
+    }
+
+    /**
+     * Loads the snapshot by parsing newline-aligned chunks of the data file in
+     * parallel. Chunk results (and their checksums) are joined in file order, so the
+     * outcome is identical to a sequential load.
+     */
+    private List<Task> loadSnapshotInParallel() throws BiscuitException {
+        try (FileChannel channel = FileChannel.open(dataPath, StandardOpenOption.READ)) {
+            List<Long> bounds = findChunkBounds(channel);
+
+            List<ForkJoinTask<ParsedChunk>> parses = new ArrayList<>();
+            for (int i = 0; i + 1 < bounds.size(); i++) {
+                long start = bounds.get(i);
+                long end = bounds.get(i + 1);
+                parses.add(ForkJoinPool.commonPool().submit(() -> parseChunk(channel, start, end, start == 0)));
+            }
+
+            List<Task> tasks = new ArrayList<>();
+            long checksum = 0;
+            for (ForkJoinTask<ParsedChunk> parse : parses) {
+                ParsedChunk chunk = joinChunk(parse);
+                if (chunk.nextId > 0) {
+                    nextId.set(chunk.nextId);
+                }
+                tasks.addAll(chunk.tasks);
+                checksum = combineCrc32(checksum, chunk.checksum, chunk.length);
+            }
+
+            snapshotChecksum = checksum;
+            isSnapshotChecksumKnown = true;
+            return tasks;
+        } catch (IOException | UncheckedIOException e) {
+            throw new BiscuitException("Failed to read data file: " + dataPath);
+        }
+    }
+
+    /**
+     * Returns chunk start offsets followed by the file size. Every chunk except the
+     * last ends right after a newline; since a newline byte never occurs inside a
+     * multi-byte UTF-8 sequence, each chunk decodes on its own.
+     */
+    private static List<Long> findChunkBounds(FileChannel channel) throws IOException {
+        long size = channel.size();
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(0L);
+
+        ByteBuffer scan = ByteBuffer.allocate(BOUNDARY_SCAN_BYTES);
+        long position = LOAD_CHUNK_BYTES;
+        while (position < size) {
+            long boundary = -1;
+            while (boundary < 0 && position < size) {
+                scan.clear();
+                int read = channel.read(scan, position);
+                for (int i = 0; i < read; i++) {
+                    if (scan.get(i) == '\n') {
+                        boundary = position + i + 1;
+                        break;
+                    }
+                }
+                position += Math.max(read, 0);
+            }
+            if (boundary < 0 || boundary >= size) {
+                break;
+            }
+            bounds.add(boundary);
+            position = boundary + LOAD_CHUNK_BYTES;
+        }
+
+        bounds.add(size);
+        return bounds;
+    }
+
+    private static ParsedChunk parseChunk(FileChannel channel, long start, long end, boolean isFirst)
+            throws BiscuitException {
+        int length = (int) (end - start);
+        ByteBuffer bytes;
+        try {
+            if (CAN_MAP_DATA_FILE) {
+                bytes = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+            } else {
+                bytes = ByteBuffer.allocate(length);
+                while (bytes.hasRemaining()) {
+                    if (channel.read(bytes, start + bytes.position()) < 0) {
+                        break;
+                    }
                 }
+                bytes.flip();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        CRC32 checksum = new CRC32();
+        checksum.update(bytes.duplicate());
+        String text = StandardCharsets.UTF_8.decode(bytes).toString();
+
+        List<Task> tasks = new ArrayList<>();
+        long nextId = 0;
+        int lineStart = 0;
+        while (lineStart < text.length()) {
+            int lineEnd = text.indexOf('\n', lineStart);
+            if (lineEnd < 0) {
+                lineEnd = text.length();
+            }
+            String line = text.substring(lineStart, lineEnd).trim();
+            if (isFirst && tasks.isEmpty() && line.startsWith(NEXT_ID_HEADER)) {
+                nextId = parseNextId(line);
+            } else if (!line.isEmpty()) {
                 tasks.add(parseLine(line));
             }
+            lineStart = lineEnd + 1;
+        }
+        return new ParsedChunk(tasks, nextId, checksum.getValue(), length);
+    }
+
+    private static ParsedChunk joinChunk(ForkJoinTask<ParsedChunk> parse) throws BiscuitException {
+        try {
+            return parse.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BiscuitException("Interrupted while loading tasks.");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof BiscuitException) {
+                throw (BiscuitException) e.getCause();
+            }
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw (UncheckedIOException) e.getCause();
+            }
+            throw new IllegalStateException("Failed to parse data file chunk", e.getCause());
+        }
+    }
+
+    /**
+     * Returns the CRC32 of two concatenated byte sequences given the CRC32 of each
+     * part (zlib's {@code crc32_combine}).
+     *
+     * @param crc1    CRC32 of the first part.
+     * @param crc2    CRC32 of the second part.
+     * @param length2 Length of the second part in bytes.
+     * @return CRC32 of the concatenation.
+     */
+    static long combineCrc32(long crc1, long crc2, long length2) {
+        if (length2 <= 0) {
+            return crc1;
+        }
+
+        long[] even = new long[32];
+        long[] odd = new long[32];
+        odd[0] = 0xEDB88320L; // CRC-32 polynomial, reflected
+        long row = 1;
+        for (int n = 1; n < 32; n++) {
+            odd[n] = row;
+            row <<= 1;
+        }
+        squareGf2Matrix(even, odd); // two zero bits
+        squareGf2Matrix(odd, even); // four zero bits
+
+        // apply length2 zero bytes to crc1, one bit of length2 per squaring
+        long remaining = length2;
+        long crc = crc1;
+        do {
+            squareGf2Matrix(even, odd);
+            if ((remaining & 1) != 0) {
+                crc = timesGf2Matrix(even, crc);
+            }
+            remaining >>= 1;
+            if (remaining == 0) {
+                break;
+            }
+            squareGf2Matrix(odd, even);
+            if ((remaining & 1) != 0) {
+                crc = timesGf2Matrix(odd, crc);
+            }
+            remaining >>= 1;
+        } while (remaining != 0);
+
+        return crc ^ crc2;
+    }
+
+    private static long timesGf2Matrix(long[] matrix, long vector) {
+        long sum = 0;
+        long remaining = vector;
+        for (int i = 0; remaining != 0; i++, remaining >>>= 1) {
+            if ((remaining & 1) != 0) {
+                sum ^= matrix[i];
+            }
+        }
+        return sum;
+    }
+
+    private static void squareGf2Matrix(long[] square, long[] matrix) {
+        for (int n = 0; n < 32; n++) {
+            square[n] = timesGf2Matrix(matrix, matrix[n]);
+        }
+    }
+
+    /**
+     * Applies the journal records to the tasks loaded from the snapshot.
+     * <p>
+     * A journal written against a different snapshot (e.g. left behind by a crash
+     * during compaction) is stale and is discarded. An unterminated last line is a
+     * torn write; it is cut off the file so that later records do not get appended
+     * to it.
+     *
+     * @return Largest task id seen in the snapshot and the journal.
+     */
+    private long replayJournal(List<Task> tasks, long lastId) throws BiscuitException {
+        hasJournal = false;
+        journalRecords = 0;
+        if (Files.notExists(journalPath)) {
+            return lastId;
+        }
+
+        byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(journalPath);
         } catch (IOException e) {
-            throw new BiscuitException("Failed to read data file: " + DATA_PATH);
+            throw new BiscuitException("Failed to read journal file: " + journalPath);
         }
 
-        return tasks;
+        // everything after the final newline is a torn record, possibly cut mid-character
+        int end = bytes.length;
+        while (end > 0 && bytes[end - 1] != '\n') {
+            end--;
+        }
+        String[] lines = new String(bytes, 0, end, StandardCharsets.UTF_8).split("\n");
+        if (!lines[0].equals("base\t" + snapshotChecksum)) {
+            discardJournal();
+            return lastId;
+        }
+        if (end < bytes.length) {
+            truncateJournal(end);
+        }
+
+        for (int i = 1; i < lines.length; i++) {
+            if (!lines[i].isEmpty()) {
+                lastId = applyRecord(tasks, lines[i], lastId);
+                journalRecords++;
+            }
+        }
+        hasJournal = true;
+        return lastId;
+    }
+
+    private void truncateJournal(long length) throws BiscuitException {
+        try (FileChannel channel = FileChannel.open(journalPath, StandardOpenOption.WRITE)) {
+            channel.truncate(length);
+        } catch (IOException e) {
+            throw new BiscuitException("Failed to repair journal file: " + journalPath);
+        }
     }
 
     /**
-     * Saves all tasks to disk, overwriting the existing file content.
+     * Applies one journal record to the tasks.
      *
-     * @param tasks Tasks to save.
-     * @throws BiscuitException If the data file cannot be written.
+     * @return Largest task id assigned so far, including the id of an added task.
      */
-    public void save(List<Task> tasks) throws BiscuitException {
+    private static long applyRecord(List<Task> tasks, String record, long lastId) throws BiscuitException {
+        String[] parts = record.split("\t", 2);
+        if (parts.length < 2) {
+            throw new BiscuitException("Corrupted journal record: " + record);
+        }
+
+        switch (parts[0]) {
+            case "add":
+                Task added = parseLine(parts[1]);
+                if (added.getId() == 0) {
+                    added.setId(lastId + 1);
+                }
+                tasks.add(added);
+                return Math.max(lastId, added.getId());
+            case "mark":
+                for (int index : parseJournalIndices(parts[1], tasks, record)) {
+                    tasks.get(index).mark();
+                }
+                break;
+            case "unmark":
+                for (int index : parseJournalIndices(parts[1], tasks, record)) {
+                    tasks.get(index).unmark();
+                }
+                break;
+            case "delete":
+                removeAll(tasks, parseJournalIndices(parts[1], tasks, record));
+                break;
+            default:
+                throw new BiscuitException("Unknown journal record: " + record);
+        }
+        return lastId;
+    }
+
+    /**
+     * Gives every snapshot task without an id the next id after the largest seen so far.
+     *
+     * @return Largest task id in the snapshot.
+     */
+    private static long assignMissingIds(List<Task> tasks) {
+        long lastId = 0;
+        for (Task task : tasks) {
+            if (task.getId() == 0) {
+                task.setId(lastId + 1);
+            }
+            lastId = Math.max(lastId, task.getId());
+        }
+        return lastId;
+    }
+
+    /**
+     * Returns the largest id the tasks have once saved and loaded back, counting the
+     * ids that {@link #assignMissingIds(List)} gives tasks without one.
+     */
+    private static long lastIdOnLoad(List<Task> tasks) {
+        long lastId = 0;
+        for (Task task : tasks) {
+            lastId = (task.getId() == 0) ? lastId + 1 : Math.max(lastId, task.getId());
+        }
+        return lastId;
+    }
+
+    /**
+     * Makes sure {@link #getNextId()} stays above the given task id.
+     */
+    private void recordId(long id) {
+        nextId.accumulateAndGet(id + 1, Math::max);
+    }
+
+    private static void checkIdOrder(List<Task> tasks) throws BiscuitException {
+        long previous = 0;
+        for (Task task : tasks) {
+            if (task.getId() <= previous) {
+                throw new BiscuitException("Corrupted data file: task id " + task.getId()
+                        + " is out of order.");
+            }
+            previous = task.getId();
+        }
+    }
+
+    /**
+     * Parses the indices of a journal record, written by {@link #formatIndices(int[])}.
+     */
+    private static int[] parseJournalIndices(String raw, List<Task> tasks, String record)
+            throws BiscuitException {
+        int[] indices = new int[8];
+        int count = 0;
+        for (String part : raw.split(",", -1)) {
+            int dash = part.indexOf('-');
+            int first;
+            int last;
+            try {
+                first = Integer.parseInt((dash < 0) ? part : part.substring(0, dash));
+                last = (dash < 0) ? first : Integer.parseInt(part.substring(dash + 1));
+            } catch (NumberFormatException e) {
+                throw new BiscuitException("Corrupted journal record: " + record);
+            }
+            boolean isIncreasing = count == 0 || first > indices[count - 1];
+            if (first < 0 || last >= tasks.size() || first > last || !isIncreasing) {
+                throw new BiscuitException("Journal record out of range: " + record);
+            }
+            if (count + (last - first + 1) > indices.length) {
+                indices = Arrays.copyOf(indices, Math.max(indices.length * 2, count + (last - first + 1)));
+            }
+            for (int index = first; index <= last; index++) {
+                indices[count++] = index;
+            }
+        }
+        return Arrays.copyOf(indices, count);
+    }
+
+    /**
+     * Writes increasing indices as comma-separated numbers and ranges, e.g. {@code 2,6,9-19}.
+     */
+    private static String formatIndices(int[] indices) {
+        assert indices.length > 0 : "At least one index should be given";
+
+        StringBuilder sb = new StringBuilder();
+        int i = 0;
+        while (i < indices.length) {
+            int first = indices[i];
+            int last = first;
+            while (i + 1 < indices.length && indices[i + 1] == last + 1) {
+                last = indices[++i];
+            }
+            i++;
+            if (sb.length() > 0) {
+                sb.append(',');
+            }
+            sb.append(first);
+            if (last > first) {
+                sb.append('-').append(last);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Removes the tasks at the given increasing indices in one pass that shifts each
+     * kept task at most once.
+     */
+    private static void removeAll(List<Task> tasks, int[] indices) {
+        int write = indices[0];
+        int next = 0;
+        for (int read = indices[0]; read < tasks.size(); read++) {
+            if (next < indices.length && indices[next] == read) {
+                next++;
+            } else {
+                tasks.set(write++, tasks.get(read));
+            }
+        }
+        tasks.subList(write, tasks.size()).clear();
+    }
+
+    private void appendRecord(String record) throws BiscuitException {
+        if (backgroundWriter == null) {
+            synchronized (diskLock) {
+                writeRecords(record + '\n');
+            }
+            journalRecords++;
+            return;
+        }
+
+        synchronized (pendingLock) {
+            throwIfWriteFailed();
+            pendingRecords.append(record).append('\n');
+            journalRecords++;
+            dirtyRecords++;
+            if (dirtyRecords >= maxDirtyRecords) {
+                queueFlush();
+            }
+        }
+    }
+
+    /**
+     * Writes a new snapshot and discards the journal.
+     * Must be called while holding {@code diskLock}.
+     */
+    private void writeSnapshot(List<Task> tasks) throws BiscuitException {
+        long start = System.nanoTime();
+        Path tempPath = dataPath.resolveSibling(dataPath.getFileName() + ".tmp");
+        CRC32 checksum = new CRC32();
+        long bytes;
         try {
-            Files.createDirectories(DATA_PATH.getParent());
-            try (BufferedWriter writer = Files.newBufferedWriter(DATA_PATH, StandardCharsets.UTF_8)) {
-                for (Task task : tasks) {
-                    writer.write(serializeTask(task));
-                    writer.newLine();
+            createParentDirectories(dataPath);
+            try (OutputStream out = new BufferedOutputStream(
+                    new CheckedOutputStream(Files.newOutputStream(tempPath), checksum))) {
+                if (format == Format.BINARY) {
+                    BinaryTaskCodec.encode(tasks, nextId.get(), out);
+                } else {
+                    writeText(tasks, nextId.get(), out);
                 }
             }
+            bytes = Files.size(tempPath);
+            moveReplacing(tempPath, dataPath);
+            Files.deleteIfExists(journalPath);
         } catch (IOException e) {
-            throw new BiscuitException("Failed to save data file: " + DATA_PATH);
+            throw new BiscuitException("Failed to save data file: " + dataPath);
+        }
+
+        snapshotChecksum = checksum.getValue();
+        isSnapshotChecksumKnown = true;
+        hasJournal = false;
+        METRICS.recordSnapshotSave(System.nanoTime() - start, bytes);
+    }
+
+    private static void writeText(List<Task> tasks, long nextId, OutputStream out)
+            throws IOException, BiscuitException {
+        BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(NEXT_ID_HEADER + nextId);
+        writer.newLine();
+        for (Task task : tasks) {
+            writer.write(serializeTask(task));
+            writer.newLine();
         }
+        writer.flush();
+    }
+
+    /**
+     * Appends newline-terminated journal records in a single write.
+     * Must be called while holding {@code diskLock}.
+     */
+    private void writeRecords(String records) throws BiscuitException {
+        long start = System.nanoTime();
+        try {
+            if (!hasJournal) {
+                startJournal();
+            }
+            try (BufferedWriter writer = Files.newBufferedWriter(journalPath, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                writer.write(records);
+            }
+        } catch (IOException e) {
+            throw new BiscuitException("Failed to write journal file: " + journalPath);
+        }
+        METRICS.recordJournalWrite(System.nanoTime() - start);
+    }
+
+    /**
+     * Asks the background writer to flush as soon as possible, unless a request is
+     * already waiting. Must be called while holding {@code pendingLock}.
+     */
+    private void queueFlush() {
+        if (isFlushQueued) {
+            return;
+        }
+        isFlushQueued = true;
+        try {
+            backgroundWriter.execute(this::flushQuietly);
+        } catch (RejectedExecutionException e) {
+            // shutting down; close() flushes on the calling thread
+            isFlushQueued = false;
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            writePending();
+        } catch (BiscuitException e) {
+            // kept in writeFailure and reported to the next caller
+        }
+    }
+
+    /**
+     * Takes everything buffered so far and writes it out. A failed write puts the
+     * data back in the buffer, unless a newer snapshot has superseded it, so that
+     * the next flush retries it.
+     */
+    private void writePending() throws BiscuitException {
+        synchronized (diskLock) {
+            List<Task> snapshot;
+            String records;
+            synchronized (pendingLock) {
+                snapshot = pendingSnapshot;
+                records = pendingRecords.toString();
+                pendingSnapshot = null;
+                pendingRecords.setLength(0);
+                dirtyRecords = 0;
+                isFlushQueued = false;
+            }
+
+            try {
+                if (snapshot != null) {
+                    writeSnapshot(snapshot);
+                    snapshot = null;
+                }
+                if (!records.isEmpty()) {
+                    writeRecords(records);
+                }
+                synchronized (pendingLock) {
+                    writeFailure = null;
+                }
+            } catch (BiscuitException e) {
+                synchronized (pendingLock) {
+                    if (pendingSnapshot == null) {
+                        pendingSnapshot = snapshot;
+                        pendingRecords.insert(0, records);
+                    }
+                    writeFailure = e;
+                }
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Must be called while holding {@code pendingLock}.
+     */
+    private void throwIfWriteFailed() throws BiscuitException {
+        if (writeFailure != null) {
+            throw writeFailure;
+        }
+    }
+
+    private void startJournal() throws IOException {
+        if (!isSnapshotChecksumKnown) {
+            snapshotChecksum = checksumOf(dataPath);
+            isSnapshotChecksumKnown = true;
+        }
+        createParentDirectories(journalPath);
+        Files.writeString(journalPath, "base\t" + snapshotChecksum + "\n", StandardCharsets.UTF_8);
+        hasJournal = true;
+    }
+
+    private void discardJournal() throws BiscuitException {
+        try {
+            Files.deleteIfExists(journalPath);
+        } catch (IOException e) {
+            throw new BiscuitException("Failed to discard stale journal file: " + journalPath);
+        }
+    }
+
+    private static long checksumOf(Path path) throws IOException {
+        CRC32 checksum = new CRC32();
+        if (Files.exists(path)) {
+            checksum.update(Files.readAllBytes(path));
+        }
+        return checksum.getValue();
+    }
+
+    private static void createParentDirectories(Path path) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+    }
+
+    private static void moveReplacing(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static String stripExtension(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        return (dot > 0) ? fileName.substring(0, dot) : fileName;
     }
 
     /**
@@ -98,18 +1122,23 @@ public class Storage {
         String description = parts[2].trim();
 
         Task task;
+        int idField;
         switch (type) {
             case "T":
                 task = parseTodo(description);
+                idField = 3;
                 break;
             case "D":
                 task = parseDeadline(parts, description, line);
+                idField = 4;
                 break;
             case "E":
                 task = parseEvent(parts, description, line);
+                idField = 5;
                 break;
             case "P":
                 task = parseDoWithin(parts, description, line);
+                idField = 5;
                 break;
 
             default:
@@ -119,6 +1148,9 @@ public class Storage {
         if (isDone) {
             task.mark();
         }
+        if (parts.length > idField) {
+            task.setId(parseId(parts[idField], line));
+        }
         return task;
     }
 
@@ -126,8 +1158,8 @@ public class Storage {
         if (parts.length < 5) {
             throw new BiscuitException("Corrupted period line: " + line);
         }
-        LocalDate start = LocalDate.parse(parts[3].trim(), DEADLINE_STORE_FMT);
-        LocalDate end = LocalDate.parse(parts[4].trim(), DEADLINE_STORE_FMT);
+        LocalDate start = DateFormats.parseDate(parts[3].trim());
+        LocalDate end = DateFormats.parseDate(parts[4].trim());
         return new DoWithinPeriodTask(description, start, end);
     }
 
@@ -140,7 +1172,7 @@ public class Storage {
         if (parts.length < 4) {
             throw new BiscuitException("Corrupted deadline line: " + line);
         }
-        LocalDate by = LocalDate.parse(parts[3].trim(), DEADLINE_STORE_FMT);
+        LocalDate by = DateFormats.parseDate(parts[3].trim());
         return new Deadline(description, by);
     }
 
@@ -148,11 +1180,27 @@ public class Storage {
         if (parts.length < 5) {
             throw new BiscuitException("Corrupted event line: " + line);
         }
-        LocalDateTime from = LocalDateTime.parse(parts[3].trim(), EVENT_STORE_FMT);
-        LocalDateTime to = LocalDateTime.parse(parts[4].trim(), EVENT_STORE_FMT);
+        LocalDateTime from = DateFormats.parseDateTime(parts[3].trim());
+        LocalDateTime to = DateFormats.parseDateTime(parts[4].trim());
         return new Event(description, from, to);
     }
 
+    private static long parseNextId(String line) throws BiscuitException {
+        return parseId(line.substring(NEXT_ID_HEADER.length()), line);
+    }
+
+    private static long parseId(String raw, String line) throws BiscuitException {
+        try {
+            long id = Long.parseLong(raw.trim());
+            if (id <= 0) {
+                throw new NumberFormatException();
+            }
+            return id;
+        } catch (NumberFormatException e) {
+            throw new BiscuitException("Invalid task id in data line: " + line);
+        }
+    }
+
     /**
      * Parses the done flag field (0/1).
      *
@@ -179,6 +1227,11 @@ public class Storage {
      * @throws BiscuitException If the task type is unsupported.
      */
     private static String serializeTask(Task task) throws BiscuitException {
+        String fields = serializeFields(task);
+        return (task.getId() == 0) ? fields : fields + "\t" + task.getId();
+    }
+
+    private static String serializeFields(Task task) throws BiscuitException {
         String done = task.isDone() ? "1" : "0";
         String description = task.getDescription();
 
@@ -188,21 +1241,39 @@ public class Storage {
         if (task instanceof Deadline) {
             Deadline d = (Deadline) task;
             return String.join("\t", "D", done, description, 
-                    d.getBy().format(DEADLINE_STORE_FMT));
+                    DateFormats.formatDate(d.getBy()));
         }
         if (task instanceof Event) {
             Event e = (Event) task;
             return String.join("\t", "E", done, description, 
-                    e.getFrom().format(EVENT_STORE_FMT),
-                    e.getTo().format(EVENT_STORE_FMT));
+                    DateFormats.formatDateTime(e.getFrom()),
+                    DateFormats.formatDateTime(e.getTo()));
         } 
         if (task instanceof DoWithinPeriodTask) {
             DoWithinPeriodTask p = (DoWithinPeriodTask) task;
             return String.join("\t", "P", done, description,
-                    p.getStart().format(DEADLINE_STORE_FMT),
-                    p.getEnd().format(DEADLINE_STORE_FMT));
+                    DateFormats.formatDate(p.getStart()),
+                    DateFormats.formatDate(p.getEnd()));
         }
 
         throw new BiscuitException("Unsupported task type: " + task.getClass().getSimpleName());
     }
+
+    /**
+     * Tasks parsed from one chunk of the data file, with the chunk's checksum.
+     */
+    private static final class ParsedChunk {
+        private final List<Task> tasks;
+        /** Id from the header line, or 0 if the chunk does not start the file. */
+        private final long nextId;
+        private final long checksum;
+        private final long length;
+
+        private ParsedChunk(List<Task> tasks, long nextId, long checksum, long length) {
+            this.tasks = tasks;
+            this.nextId = nextId;
+            this.checksum = checksum;
+            this.length = length;
+        }
+    }
 }
@@ -2,10 +2,22 @@ package biscuit;
 
 /**
  * Represents a task in Biscuit.
+ * <p>
+ * The display form returned by {@link #toString()} is rendered once per done
+ * state and cached, so listing tasks does not reformat their dates. Each cached
+ * form is rendered from the state it is kept for, so a thread that reads a task
+ * while another marks it cannot leave a stale form behind.
+ * <p>
+ * Each task also has an id that stays the same while other tasks are added and
+ * deleted, unlike its position in the list. Ids are positive and increase in list
+ * order; 0 means that no id has been assigned yet.
  */
 public abstract class Task {
     private final String description;
-    private boolean isDone;
+    private volatile boolean isDone;
+    private String renderedUndone;
+    private String renderedDone;
+    private long id;
 
     /**
      * Creates a new task with the given description.
@@ -43,6 +55,28 @@ public abstract class Task {
         return isDone;
     }
 
+    /**
+     * Returns the stable id of the task.
+     *
+     * @return Id of the task, or 0 if none has been assigned yet.
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Assigns the stable id of the task. Called once, by {@link TaskList}, when
+     * the task is loaded from storage, or for a todo queued while loading.
+     *
+     * @param id Positive id.
+     */
+    void setId(long id) {
+        assert id > 0 : "Task id should be positive";
+        assert this.id == 0 || this.id == id : "Task id should not change once assigned";
+
+        this.id = id;
+    }
+
     /**
      * Returns the description of the task.
      *
@@ -52,8 +86,47 @@ public abstract class Task {
         return description;
     }
 
+    /**
+     * Appends the display form of this task to {@code sb}.
+     *
+     * @param sb Builder to append to.
+     * @return The same builder.
+     */
+    public StringBuilder appendTo(StringBuilder sb) {
+        return sb.append(toString());
+    }
+
     @Override
-    public String toString() {
+    public final String toString() {
+        boolean done = isDone;
+        String text = done ? renderedDone : renderedUndone;
+        if (text == null) {
+            text = render(done);
+            if (done) {
+                renderedDone = text;
+            } else {
+                renderedUndone = text;
+            }
+        }
+        return text;
+    }
+
+    /**
+     * Renders the display form of this task, e.g. {@code [D][X] return book (by: Jan 20 2026)}.
+     * Called at most about once for each done state.
+     *
+     * @param isDone Done state to render, which may differ from the current one.
+     * @return Display form of the task.
+     */
+    protected abstract String render(boolean isDone);
+
+    /**
+     * Renders the done status and description shared by all task types.
+     *
+     * @param isDone Done state to render.
+     * @return Status box followed by the description, e.g. {@code [X] return book}.
+     */
+    protected String renderStatus(boolean isDone) {
         return (isDone ? "[X] " : "[ ] ") + description;
     }
 }
@@ -0,0 +1,152 @@
+package biscuit;
+
+/**
+ * Map from task id to task, used by {@link TaskList} to look tasks up by id.
+ * <p>
+ * The ids are kept in a primitive {@code long[]} with open addressing and linear
+ * probing, next to a parallel array of tasks, so a lookup neither boxes the id nor
+ * follows entry objects. Slots are chosen by Fibonacci hashing, which spreads the
+ * consecutive ids evenly. Removal shifts the later entries of the same probe run
+ * back into the gap instead of leaving tombstones, so lookups stay O(1) however
+ * many tasks have been deleted.
+ */
+final class TaskIdIndex {
+
+    private static final long GOLDEN_RATIO = 0x9E3779B97F4A7C15L;
+    private static final int MIN_CAPACITY = 16;
+
+    /** Ids of the entries; 0 marks an empty slot, as task ids start at 1. */
+    private long[] ids;
+    private Task[] tasks;
+    private int size;
+    private int mask;
+    private int shift;
+
+    TaskIdIndex() {
+        this(0);
+    }
+
+    /**
+     * Creates an index sized to hold the given number of tasks without growing.
+     *
+     * @param expectedSize Expected number of tasks.
+     */
+    TaskIdIndex(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity * 3L < expectedSize * 4L) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the task with the given id.
+     *
+     * @param id Task id.
+     * @return Task with that id, or null if there is none.
+     */
+    Task get(long id) {
+        if (id <= 0) {
+            return null;
+        }
+        for (int slot = slotOf(id); ; slot = (slot + 1) & mask) {
+            long key = ids[slot];
+            if (key == id) {
+                return tasks[slot];
+            }
+            if (key == 0) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Adds the task under its id, replacing any task with the same id.
+     *
+     * @param task Task with an assigned id.
+     */
+    void put(Task task) {
+        assert task.getId() > 0 : "put(): task has no id";
+
+        if ((size + 1) * 4L > ids.length * 3L) {
+            rehash(ids.length << 1);
+        }
+        long id = task.getId();
+        int slot = slotOf(id);
+        while (ids[slot] != 0 && ids[slot] != id) {
+            slot = (slot + 1) & mask;
+        }
+        if (ids[slot] == 0) {
+            ids[slot] = id;
+            size++;
+        }
+        tasks[slot] = task;
+    }
+
+    /**
+     * Removes the task with the given id.
+     *
+     * @param id Task id.
+     * @return Removed task, or null if there was none.
+     */
+    Task remove(long id) {
+        if (id <= 0) {
+            return null;
+        }
+        int slot = slotOf(id);
+        while (ids[slot] != id) {
+            if (ids[slot] == 0) {
+                return null;
+            }
+            slot = (slot + 1) & mask;
+        }
+        Task removed = tasks[slot];
+
+        // Move later entries of the run into the gap unless that would put them
+        // before their home slot.
+        int gap = slot;
+        for (int next = (gap + 1) & mask; ids[next] != 0; next = (next + 1) & mask) {
+            int home = slotOf(ids[next]);
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                ids[gap] = ids[next];
+                tasks[gap] = tasks[next];
+                gap = next;
+            }
+        }
+        ids[gap] = 0;
+        tasks[gap] = null;
+        size--;
+        return removed;
+    }
+
+    private int slotOf(long id) {
+        return (int) ((id * GOLDEN_RATIO) >>> shift);
+    }
+
+    private void allocate(int capacity) {
+        ids = new long[capacity];
+        tasks = new Task[capacity];
+        mask = capacity - 1;
+        shift = Long.numberOfLeadingZeros(capacity) + 1;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldIds = ids;
+        Task[] oldTasks = tasks;
+        allocate(capacity);
+        for (int i = 0; i < oldIds.length; i++) {
+            if (oldIds[i] != 0) {
+                int slot = slotOf(oldIds[i]);
+                while (ids[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                ids[slot] = oldIds[i];
+                tasks[slot] = oldTasks[i];
+            }
+        }
+    }
+}
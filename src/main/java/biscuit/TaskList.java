@@ -1,23 +1,88 @@
 package biscuit;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
+/**
+ * Holds the tasks in list order, together with indices that are kept up to date
+ * on every add and remove: a search index over descriptions, interval indices
+ * over task dates (in epoch minutes) for date-range queries and sorted views, an
+ * index of the tasks that are not done, and an index of the tasks by their stable
+ * id. Tasks must therefore be marked through {@link #markAll(int[])} and
+ * {@link #unmarkAll(int[])} once they are in the list. A {@link Listener} is told
+ * of every such change, e.g. to keep reminders up to date.
+ * <p>
+ * Tasks without an id get the next free one when they are added, and tasks are
+ * only ever appended, so ids increase in list order. A task's position can
+ * therefore be found from its id in O(log n), without scanning the list.
+ * <p>
+ * The order itself is a {@link PersistentTaskVector}. Every add or remove
+ * publishes a new version, so {@link #asList()} is an O(1) immutable snapshot
+ * that another thread may read, e.g. to save it, while the list keeps changing.
+ * The indices are not safe for concurrent use; callers serialize updates and
+ * queries as {@link Biscuit} does.
+ */
 public class TaskList {
 
-    private final List<Task> tasks;
+    private static final Metrics METRICS = Metrics.getInstance();
+
+    private volatile PersistentTaskVector tasks;
+    private final SearchIndex searchIndex = new SearchIndex();
+    private final IntervalIndex spans = new IntervalIndex();
+    private final IntervalIndex dueDates = new IntervalIndex();
+    /** Tasks not done, each as the point interval of its id, i.e. in list order. */
+    private final IntervalIndex undone = new IntervalIndex();
+    private final TaskIdIndex byId;
+    private long nextId = 1;
+    private Listener listener;
 
     public TaskList() {
-        tasks = new ArrayList<>();
+        tasks = PersistentTaskVector.EMPTY;
+        byId = new TaskIdIndex();
     }
 
     public TaskList(List<Task> loadedTasks) {
+        this(loadedTasks, 1);
+    }
+
+    /**
+     * Creates a list of loaded tasks whose new tasks get ids from {@code nextId} on,
+     * so that the ids of tasks deleted before the load are not given out again.
+     *
+     * @param loadedTasks Tasks in list order, with increasing ids.
+     * @param nextId      Smallest id a new task may get, e.g. {@link Storage#getNextId()}.
+     */
+    public TaskList(List<Task> loadedTasks, long nextId) {
         assert loadedTasks != null : "Loaded task list should not be null";
         for (Task t : loadedTasks) {
             assert t != null : "Loaded task list should not contain null tasks";
         }
-        
-        tasks = new ArrayList<>(loadedTasks);
+        assert nextId > 0 : "Next id should be positive";
+
+        byId = new TaskIdIndex(loadedTasks.size());
+        for (Task t : loadedTasks) {
+            assignId(t);
+        }
+        this.nextId = Math.max(this.nextId, nextId);
+        tasks = PersistentTaskVector.of(loadedTasks);
+        for (Task t : loadedTasks) {
+            addToIndices(t);
+        }
+    }
+
+    /**
+     * Sets the listener told of every later add, remove, mark and unmark.
+     *
+     * @param listener Listener to tell, or null for none.
+     */
+    public void setListener(Listener listener) {
+        this.listener = listener;
     }
 
     public int size() {
@@ -25,7 +90,7 @@ public class TaskList {
     }
 
     public boolean isEmpty() {
-        return tasks.isEmpty();
+        return tasks.size() == 0;
     }
 
     public Task get(int index) {
@@ -37,26 +102,390 @@ public class TaskList {
     public void add(Task task) {
         assert task != null : "Cannot add a null task";
 
-        tasks.add(task);
+        assignId(task);
+        tasks = tasks.append(task);
+        addToIndices(task);
+        if (listener != null) {
+            listener.taskAdded(task);
+        }
+    }
+
+    /**
+     * Appends the tasks in order, e.g. after an import.
+     *
+     * @param added Tasks to append.
+     */
+    public void addAll(List<Task> added) {
+        int size = tasks.size();
+        int depth = 32 - Integer.numberOfLeadingZeros(size);
+        for (Task task : added) {
+            assert task != null : "Cannot add a null task";
+            assignId(task);
+        }
+        if ((long) added.size() * depth < size) {
+            for (Task task : added) {
+                tasks = tasks.append(task);
+            }
+        } else {
+            List<Task> all = new ArrayList<>(size + added.size());
+            all.addAll(tasks.asList());
+            all.addAll(added);
+            tasks = PersistentTaskVector.of(all);
+        }
+
+        for (Task task : added) {
+            addToIndices(task);
+            if (listener != null) {
+                listener.taskAdded(task);
+            }
+        }
     }
 
     public Task remove(int index) {
-        return tasks.remove(index);
+        Task removed = tasks.get(index);
+        tasks = tasks.removeAt(index);
+        removeFromIndices(removed);
+        if (listener != null) {
+            listener.taskRemoved(removed);
+        }
+        return removed;
+    }
+
+    /**
+     * Returns the task with the given id, in O(1).
+     *
+     * @param id Task id.
+     * @return Task with that id, or null if there is none.
+     */
+    public Task findById(long id) {
+        return byId.get(id);
+    }
+
+    /**
+     * Returns the position of the task with the given id, in O(log n).
+     *
+     * @param id Task id.
+     * @return 0-based position, or -1 if there is no such task.
+     */
+    public int indexOfId(long id) {
+        return (byId.get(id) == null) ? -1 : tasks.indexOfId(id);
+    }
+
+    /**
+     * Returns the tasks at the given positions.
+     *
+     * @param indices 0-based positions.
+     * @return Tasks in the order of {@code indices}.
+     */
+    public List<Task> getAll(int[] indices) {
+        List<Task> selected = new ArrayList<>(indices.length);
+        for (int index : indices) {
+            selected.add(get(index));
+        }
+        return selected;
+    }
+
+    /**
+     * Removes the tasks at the given positions in one operation.
+     * <p>
+     * A small selection is removed task by task, each in O(log n). Once that would
+     * cost more than rebuilding, the kept tasks are instead compacted in a single
+     * O(n) pass into a new vector.
+     *
+     * @param indices 0-based positions before the removal, strictly increasing.
+     * @return Removed tasks in list order.
+     */
+    public List<Task> removeAll(int[] indices) {
+        List<Task> removed = new ArrayList<>(indices.length);
+        int size = tasks.size();
+        int depth = 32 - Integer.numberOfLeadingZeros(size);
+        if ((long) indices.length * depth < size) {
+            for (int i = indices.length - 1; i >= 0; i--) {
+                removed.add(tasks.get(indices[i]));
+                tasks = tasks.removeAt(indices[i]);
+            }
+            Collections.reverse(removed);
+        } else {
+            List<Task> kept = new ArrayList<>(size - indices.length);
+            int next = 0;
+            int position = 0;
+            for (Task task : tasks.asList()) {
+                if (next < indices.length && indices[next] == position) {
+                    removed.add(task);
+                    next++;
+                } else {
+                    kept.add(task);
+                }
+                position++;
+            }
+            assert next == indices.length : "removeAll(): indices out of bounds or not increasing";
+            tasks = PersistentTaskVector.of(kept);
+        }
+
+        for (Task task : removed) {
+            removeFromIndices(task);
+            if (listener != null) {
+                listener.taskRemoved(task);
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Marks the tasks at the given positions as done.
+     *
+     * @param indices 0-based positions.
+     * @return Tasks in the order of {@code indices}.
+     */
+    public List<Task> markAll(int[] indices) {
+        List<Task> selected = getAll(indices);
+        for (Task task : selected) {
+            if (!task.isDone()) {
+                task.mark();
+                undone.remove(task);
+                if (listener != null) {
+                    listener.taskDoneChanged(task);
+                }
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Marks the tasks at the given positions as not done.
+     *
+     * @param indices 0-based positions.
+     * @return Tasks in the order of {@code indices}.
+     */
+    public List<Task> unmarkAll(int[] indices) {
+        List<Task> selected = getAll(indices);
+        for (Task task : selected) {
+            if (task.isDone()) {
+                task.unmark();
+                undone.add(task, task.getId(), task.getId());
+                if (listener != null) {
+                    listener.taskDoneChanged(task);
+                }
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Returns the positions of the tasks that are marked as done.
+     *
+     * @return 0-based positions, increasing.
+     */
+    public int[] findDoneIndices() {
+        int[] done = new int[tasks.size()];
+        int count = 0;
+        int position = 0;
+        for (Task task : tasks.asList()) {
+            if (task.isDone()) {
+                done[count++] = position;
+            }
+            position++;
+        }
+        return Arrays.copyOf(done, count);
     }
 
+    /**
+     * Returns an immutable snapshot of the tasks in list order, without copying.
+     * Later adds and removes do not affect it; the tasks themselves are shared, so
+     * marking a task is visible through every snapshot that contains it.
+     *
+     * @return Snapshot of the current tasks.
+     */
     public List<Task> asList() {
-        return List.copyOf(tasks);
+        return tasks.asList();
     }
     
+    /**
+     * Returns the tasks whose description contains the keyword, ignoring case.
+     * Answered from the search index, so the cost depends on the number of
+     * candidates rather than on the size of the list.
+     *
+     * @param keyword Keyword to search for.
+     * @return Matching tasks in list order.
+     */
     public List<Task> find(String keyword) {
-        List<Task> matches = new ArrayList<>();
-        String needle = keyword.toLowerCase();
+        List<Task> matches = searchIndex.find(keyword);
+        METRICS.recordFindResults(matches.size());
+        return matches;
+    }
 
-        for (Task task : tasks) {
-            if (task.getDescription().toLowerCase().contains(needle)) {
-                matches.add(task);
-            }
-        }
+    /**
+     * Returns a window of the tasks whose description contains the keyword,
+     * ignoring case. Only the matches up to the end of the window are visited.
+     *
+     * @param keyword Keyword to search for.
+     * @param skip    Number of leading matches to skip.
+     * @param limit   Maximum number of matches to return.
+     * @return Matching tasks in the window, in list order.
+     */
+    public List<Task> find(String keyword, int skip, int limit) {
+        List<Task> matches = searchIndex.find(keyword, skip, limit);
+        METRICS.recordFindResults(matches.size());
         return matches;
     }
+
+    /**
+     * Returns the number of tasks that are not done.
+     *
+     * @return Number of tasks in {@link #getUndone(int, int)}.
+     */
+    public int countUndone() {
+        return undone.size();
+    }
+
+    /**
+     * Returns a window of the tasks that are not done, in list order, in
+     * O(log n + k) for a window of k tasks.
+     *
+     * @param skip  Number of leading undone tasks to skip.
+     * @param limit Maximum number of tasks to return.
+     * @return Undone tasks in the window.
+     */
+    public List<Task> getUndone(int skip, int limit) {
+        return undone.inOrder(skip, limit);
+    }
+
+    /**
+     * Returns the number of tasks with a due date: deadlines and within-period tasks.
+     *
+     * @return Number of tasks in {@link #getByDueDate(int, int)}.
+     */
+    public int countWithDueDate() {
+        return dueDates.size();
+    }
+
+    /**
+     * Returns a window of the deadlines and within-period tasks ordered by due
+     * date (the end of the period), read from the maintained index in
+     * O(log n + k) rather than sorted on every call.
+     *
+     * @param skip  Number of leading tasks to skip.
+     * @param limit Maximum number of tasks to return.
+     * @return Tasks in the window, ordered by due date, then by when they were added.
+     */
+    public List<Task> getByDueDate(int skip, int limit) {
+        return dueDates.inOrder(skip, limit);
+    }
+
+    /**
+     * Returns the number of dated tasks: deadlines, events and within-period tasks.
+     *
+     * @return Number of tasks in {@link #getByStart(int, int)}.
+     */
+    public int countDated() {
+        return spans.size();
+    }
+
+    /**
+     * Returns a window of the dated tasks ordered by the start of their time span:
+     * events by their start, deadlines by their due day and within-period tasks by
+     * their first day. Read from the maintained index in O(log n + k).
+     *
+     * @param skip  Number of leading tasks to skip.
+     * @param limit Maximum number of tasks to return.
+     * @return Tasks in the window, ordered by start, then by when they were added.
+     */
+    public List<Task> getByStart(int skip, int limit) {
+        return spans.inOrder(skip, limit);
+    }
+
+    /**
+     * Returns the deadlines due, and the within-period tasks ending, between the
+     * given dates (inclusive).
+     *
+     * @param from First date of the range.
+     * @param to   Last date of the range.
+     * @return Matching tasks ordered by due date.
+     */
+    public List<Task> findDueBetween(LocalDate from, LocalDate to) {
+        return dueDates.overlapping(startOfDay(from), endOfDay(to));
+    }
+
+    /**
+     * Returns the dated tasks whose time span overlaps the given range: events by
+     * their start and end, deadlines by their due day, and within-period tasks by
+     * their whole period.
+     *
+     * @param from Start of the range.
+     * @param to   End of the range (inclusive).
+     * @return Matching tasks ordered by the start of their time span.
+     */
+    public List<Task> findOverlapping(LocalDateTime from, LocalDateTime to) {
+        return spans.overlapping(toEpochMinute(from), toEpochMinute(to));
+    }
+
+    /**
+     * Gives the task the next free id if it has none. A task that already has an
+     * id, e.g. one loaded from storage, must come after every task in the list.
+     */
+    private void assignId(Task task) {
+        if (task.getId() == 0) {
+            task.setId(nextId);
+        }
+        assert task.getId() >= nextId : "Task ids should increase in list order";
+        nextId = task.getId() + 1;
+    }
+
+    private void addToIndices(Task task) {
+        byId.put(task);
+        searchIndex.add(task);
+        if (!task.isDone()) {
+            undone.add(task, task.getId(), task.getId());
+        }
+
+        if (task instanceof Deadline) {
+            LocalDate by = ((Deadline) task).getBy();
+            spans.add(task, startOfDay(by), endOfDay(by));
+            dueDates.add(task, startOfDay(by), endOfDay(by));
+        } else if (task instanceof Event) {
+            Event e = (Event) task;
+            spans.add(task, toEpochMinute(e.getFrom()), toEpochMinute(e.getTo()));
+        } else if (task instanceof DoWithinPeriodTask) {
+            DoWithinPeriodTask p = (DoWithinPeriodTask) task;
+            spans.add(task, startOfDay(p.getStart()), endOfDay(p.getEnd()));
+            dueDates.add(task, startOfDay(p.getEnd()), endOfDay(p.getEnd()));
+        }
+    }
+
+    private void removeFromIndices(Task task) {
+        byId.remove(task.getId());
+        searchIndex.remove(task);
+        undone.remove(task);
+        spans.remove(task);
+        dueDates.remove(task);
+    }
+
+    private static long startOfDay(LocalDate date) {
+        return toEpochMinute(date.atStartOfDay());
+    }
+
+    private static long endOfDay(LocalDate date) {
+        return toEpochMinute(date.atTime(LocalTime.MAX));
+    }
+
+    private static long toEpochMinute(LocalDateTime dateTime) {
+        return Math.floorDiv(dateTime.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+
+    /**
+     * Receives the changes made to a {@link TaskList}, on the thread that makes them.
+     */
+    public interface Listener {
+
+        void taskAdded(Task task);
+
+        void taskRemoved(Task task);
+
+        /**
+         * Called after a task in the list is marked or unmarked.
+         *
+         * @param task Task whose done state changed.
+         */
+        void taskDoneChanged(Task task);
+    }
 }
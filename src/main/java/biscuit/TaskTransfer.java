@@ -0,0 +1,251 @@
+package biscuit;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.regex.Pattern;
+
+/**
+ * Imports tasks from, and exports them to, iCalendar ({@code .ics}) and CSV files;
+ * see {@link IcsCodec} and {@link CsvCodec} for how tasks map to each format.
+ * <p>
+ * Files are streamed in both directions. On import, a single reader splits the
+ * file into raw records, which are turned into tasks in batches on the common
+ * fork/join pool. Only a bounded number of batches is in flight at a time, so the
+ * raw text of a large file is never held in memory at once. Batches are joined in
+ * file order, so the tasks keep the order of the file.
+ * <p>
+ * A record that cannot be turned into a task, for whatever reason, is skipped and
+ * counted; the first such error is reported with its line number.
+ */
+final class TaskTransfer {
+
+    private static final int BATCH_SIZE = 2048;
+    private static final int MAX_BATCHES_IN_FLIGHT = 2 * ForkJoinPool.getCommonPoolParallelism() + 2;
+    private static final Pattern LINE_BREAKS = Pattern.compile("[\\t\\r\\n]+");
+
+    private TaskTransfer() {
+    }
+
+    /**
+     * Reads tasks from an {@code .ics} or {@code .csv} file.
+     *
+     * @param path File to read; its extension selects the format.
+     * @return The tasks read, with the records that were skipped.
+     * @throws BiscuitException If the file type is not supported or the file cannot be read.
+     */
+    static ImportResult importTasks(Path path) throws BiscuitException {
+        boolean isIcs = isIcs(path);
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            RecordReader records = isIcs ? new IcsCodec.Reader(reader) : new CsvCodec.Reader(reader);
+            return convertInBatches(records);
+        } catch (NoSuchFileException e) {
+            throw new BiscuitException("File not found: " + path);
+        } catch (IOException | UncheckedIOException e) {
+            throw new BiscuitException("Failed to read " + path + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the tasks to an {@code .ics} or {@code .csv} file, replacing it.
+     *
+     * @param tasks Tasks to write, in order.
+     * @param path  File to write; its extension selects the format.
+     * @throws BiscuitException If the file type is not supported or the file cannot be written.
+     */
+    static void exportTasks(List<Task> tasks, Path path) throws BiscuitException {
+        boolean isIcs = isIcs(path);
+        try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            if (isIcs) {
+                IcsCodec.write(tasks, writer);
+            } else {
+                CsvCodec.write(tasks, writer);
+            }
+        } catch (IOException e) {
+            throw new BiscuitException("Failed to write " + path + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Returns whether the path names an iCalendar file, as opposed to a CSV file.
+     *
+     * @throws BiscuitException If the path names neither.
+     */
+    private static boolean isIcs(Path path) throws BiscuitException {
+        Path fileName = path.getFileName();
+        String name = (fileName == null) ? "" : fileName.toString().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".ics")) {
+            return true;
+        }
+        if (name.endsWith(".csv")) {
+            return false;
+        }
+        throw new BiscuitException("Unsupported file type: use a .ics or .csv file.");
+    }
+
+    /**
+     * Turns the records into tasks in batches on the common pool, keeping at most
+     * {@link #MAX_BATCHES_IN_FLIGHT} batches read ahead of the oldest unfinished one.
+     */
+    private static ImportResult convertInBatches(RecordReader records) throws IOException, BiscuitException {
+        ImportResult result = new ImportResult();
+        Deque<ForkJoinTask<ImportResult>> inFlight = new ArrayDeque<>();
+        List<RawRecord> batch = new ArrayList<>(BATCH_SIZE);
+        for (RawRecord record = records.next(); record != null; record = records.next()) {
+            batch.add(record);
+            if (batch.size() == BATCH_SIZE) {
+                if (inFlight.size() == MAX_BATCHES_IN_FLIGHT) {
+                    result.append(joinBatch(inFlight.removeFirst()));
+                }
+                List<RawRecord> full = batch;
+                inFlight.addLast(ForkJoinPool.commonPool().submit(() -> convert(full)));
+                batch = new ArrayList<>(BATCH_SIZE);
+            }
+        }
+        while (!inFlight.isEmpty()) {
+            result.append(joinBatch(inFlight.removeFirst()));
+        }
+        result.append(convert(batch));
+        return result;
+    }
+
+    private static ImportResult convert(List<RawRecord> batch) {
+        ImportResult result = new ImportResult();
+        for (RawRecord record : batch) {
+            try {
+                result.tasks.add(record.toTask());
+            } catch (BiscuitException e) {
+                result.skip(record.getLine(), e.getMessage());
+            } catch (RuntimeException e) {
+                // e.g. a date that is valid on its own but out of range once converted
+                result.skip(record.getLine(), "Invalid record: " + e.getMessage());
+            }
+        }
+        return result;
+    }
+
+    private static ImportResult joinBatch(ForkJoinTask<ImportResult> batch) throws BiscuitException {
+        try {
+            return batch.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BiscuitException("Interrupted while importing tasks.");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to convert imported records", e.getCause());
+        }
+    }
+
+    /**
+     * Returns a description that fits on one line of the data file: runs of tabs and
+     * line breaks become single spaces.
+     *
+     * @param raw Description as read from the file, possibly null.
+     * @return Cleaned description.
+     * @throws BiscuitException If the description is missing or blank.
+     */
+    static String cleanDescription(String raw) throws BiscuitException {
+        String description = (raw == null) ? "" : LINE_BREAKS.matcher(raw).replaceAll(" ").trim();
+        if (description.isEmpty()) {
+            throw new BiscuitException("The task has no description.");
+        }
+        return description;
+    }
+
+    /**
+     * Writes a line break as used by both formats.
+     */
+    static void newLine(Writer writer) throws IOException {
+        writer.write("\r\n");
+    }
+
+    /**
+     * One record of an imported file, not yet turned into a task.
+     */
+    interface RawRecord {
+
+        /**
+         * Returns the line of the file on which the record starts.
+         *
+         * @return 1-based line number.
+         */
+        int getLine();
+
+        /**
+         * Builds the task described by the record. May run on any thread.
+         *
+         * @return The task.
+         * @throws BiscuitException If the record does not describe a valid task.
+         */
+        Task toTask() throws BiscuitException;
+    }
+
+    /**
+     * Splits an imported file into raw records, in file order.
+     */
+    interface RecordReader {
+
+        /**
+         * Reads the next record.
+         *
+         * @return The next record, or null at the end of the file.
+         * @throws IOException      If the file cannot be read.
+         * @throws BiscuitException If the file is malformed beyond recovery.
+         */
+        RawRecord next() throws IOException, BiscuitException;
+    }
+
+    /**
+     * Tasks read from a file, with the records that could not be imported.
+     */
+    static final class ImportResult {
+        private final List<Task> tasks = new ArrayList<>();
+        private int skippedCount;
+        private String firstError;
+
+        List<Task> getTasks() {
+            return tasks;
+        }
+
+        int getSkippedCount() {
+            return skippedCount;
+        }
+
+        /**
+         * Returns the error of the first skipped record.
+         *
+         * @return Error message with its line number, or null if nothing was skipped.
+         */
+        String getFirstError() {
+            return firstError;
+        }
+
+        private void skip(int line, String message) {
+            if (firstError == null) {
+                firstError = "Line " + line + ": " + message;
+            }
+            skippedCount++;
+        }
+
+        private void append(ImportResult later) {
+            tasks.addAll(later.tasks);
+            if (firstError == null) {
+                firstError = later.firstError;
+            }
+            skippedCount += later.skippedCount;
+        }
+    }
+}
@@ -15,7 +15,7 @@ public class Todo extends Task {
     }
 
     @Override
-    public String toString() {
-        return "[T]" + super.toString();
+    protected String render(boolean isDone) {
+        return "[T]" + renderStatus(isDone);
     }
 }
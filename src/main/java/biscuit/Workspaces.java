@@ -0,0 +1,254 @@
+package biscuit;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Gives every user their own task list, stored in its own data file, and keeps
+ * only the most recently used lists in memory.
+ * <p>
+ * The data file of user {@code alice} is {@code <root>/<shard>/alice/biscuit.txt},
+ * where the two-hex-digit shard spreads users over 256 directories so that no
+ * directory grows too large. A list is loaded on first use, which reads only
+ * that user's file. Once more than {@code maxLoaded} lists are in memory, the
+ * least recently used lists that nobody holds are saved and dropped. Saving
+ * happens outside the registry lock, so it only delays users of the list being
+ * saved: acquiring it again waits until the save is done, then loads it afresh.
+ * <p>
+ * Callers {@link #acquire(String)} a user's {@link Biscuit} and
+ * {@link #release(String)} it when done; a held list is never dropped.
+ */
+public class Workspaces implements AutoCloseable {
+
+    private static final int MAX_NAME_LENGTH = 64;
+    private static final String DATA_FILE_NAME = "biscuit.txt";
+
+    private final Path root;
+    private final int maxLoaded;
+    // access order, so iteration starts at the least recently used list
+    private final LinkedHashMap<String, Workspace> loaded = new LinkedHashMap<>(16, 0.75f, true);
+    // dropped lists whose tasks are still being saved
+    private final Map<String, Workspace> closing = new HashMap<>();
+
+    /**
+     * Creates a registry that stores user data under {@code root}.
+     *
+     * @param root      Directory holding the shard directories.
+     * @param maxLoaded Number of lists to keep in memory; more stay loaded only
+     *                  while they are held.
+     */
+    public Workspaces(Path root, int maxLoaded) {
+        assert root != null : "Root directory should not be null";
+        assert maxLoaded > 0 : "At least one list should fit in memory";
+
+        this.root = root;
+        this.maxLoaded = maxLoaded;
+    }
+
+    /**
+     * Returns the chatbot holding the given user's tasks, loading them if needed,
+     * and keeps it in memory until the matching {@link #release(String)}.
+     *
+     * @param user User name: letters, digits, '.', '_' or '-'; case is ignored.
+     * @return The user's chatbot.
+     * @throws BiscuitException If the user name is invalid.
+     */
+    public Biscuit acquire(String user) throws BiscuitException {
+        String key = normalizeUser(user);
+        Workspace workspace;
+        while (true) {
+            Workspace saving;
+            synchronized (this) {
+                saving = closing.get(key);
+                if (saving == null) {
+                    workspace = loaded.computeIfAbsent(key, Workspace::new);
+                    workspace.holders++;
+                    break;
+                }
+            }
+            // loading the data file before the save is done would miss the latest changes
+            saving.closed.join();
+        }
+
+        // loading only blocks other users of the same list
+        synchronized (workspace) {
+            if (workspace.biscuit == null) {
+                workspace.biscuit = new Biscuit(new Storage(dataPathOf(key)));
+            }
+            return workspace.biscuit;
+        }
+    }
+
+    /**
+     * Releases a list returned by {@link #acquire(String)}, then drops idle lists
+     * while more than {@code maxLoaded} are in memory.
+     *
+     * @param user User name passed to {@code acquire}.
+     */
+    public void release(String user) {
+        List<Workspace> evicted;
+        synchronized (this) {
+            Workspace workspace = loaded.get(normalizeUserUnchecked(user));
+            assert workspace != null && workspace.holders > 0 : "Released a list that is not held: " + user;
+            workspace.holders--;
+            evicted = removeIdle(loaded.size() - maxLoaded);
+        }
+        shutDown(evicted);
+    }
+
+    /**
+     * Releases {@code previous} (if any) and acquires {@code next}.
+     *
+     * @param previous User currently held, or {@code null}.
+     * @param next     User to switch to.
+     * @return The chatbot of {@code next}.
+     * @throws BiscuitException If {@code next} is not a valid user name; {@code previous}
+     *                          is then still held.
+     */
+    public Biscuit switchUser(String previous, String next) throws BiscuitException {
+        Biscuit biscuit = acquire(next);
+        if (previous != null) {
+            release(previous);
+        }
+        return biscuit;
+    }
+
+    /**
+     * Returns the loaded users, least recently used first.
+     *
+     * @return Loaded user names.
+     */
+    synchronized List<String> getLoadedUsers() {
+        return new ArrayList<>(loaded.keySet());
+    }
+
+    /**
+     * Returns the number of lists currently in memory.
+     *
+     * @return Number of loaded lists.
+     */
+    public synchronized int getLoadedCount() {
+        return loaded.size();
+    }
+
+    /**
+     * Returns the data file of the given user.
+     *
+     * @param user Valid user name.
+     * @return Path of the user's data file.
+     * @throws BiscuitException If the user name is invalid.
+     */
+    public Path getDataPath(String user) throws BiscuitException {
+        return dataPathOf(normalizeUser(user));
+    }
+
+    /**
+     * Saves and drops every loaded list, held or not, and waits for lists dropped
+     * earlier to finish saving.
+     */
+    @Override
+    public void close() {
+        List<Workspace> all;
+        List<Workspace> alreadyClosing;
+        synchronized (this) {
+            alreadyClosing = new ArrayList<>(closing.values());
+            all = new ArrayList<>(loaded.values());
+            for (Workspace workspace : all) {
+                closing.put(workspace.user, workspace);
+            }
+            loaded.clear();
+        }
+        shutDown(all);
+        for (Workspace workspace : alreadyClosing) {
+            workspace.closed.join();
+        }
+    }
+
+    private List<Workspace> removeIdle(int count) {
+        List<Workspace> removed = new ArrayList<>();
+        Iterator<Workspace> iterator = loaded.values().iterator();
+        while (removed.size() < count && iterator.hasNext()) {
+            Workspace workspace = iterator.next();
+            if (workspace.holders == 0) {
+                iterator.remove();
+                closing.put(workspace.user, workspace);
+                removed.add(workspace);
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Saves the tasks of lists already moved to {@code closing}, then lets waiting
+     * {@link #acquire(String)} calls load them again. Must be called without holding
+     * the registry lock.
+     */
+    private void shutDown(List<Workspace> workspaces) {
+        for (Workspace workspace : workspaces) {
+            try {
+                synchronized (workspace) {
+                    if (workspace.biscuit != null) {
+                        workspace.biscuit.shutdown();
+                    }
+                }
+            } catch (BiscuitException e) {
+                System.err.println("Failed to save the tasks of " + workspace.user + ": " + e.getMessage());
+            } finally {
+                synchronized (this) {
+                    closing.remove(workspace.user, workspace);
+                }
+                workspace.closed.complete(null);
+            }
+        }
+    }
+
+    private Path dataPathOf(String key) {
+        String shard = String.format("%02x", key.hashCode() & 0xff);
+        return root.resolve(shard).resolve(key).resolve(DATA_FILE_NAME);
+    }
+
+    /**
+     * Checks that a user name is safe to use as a directory name and returns its
+     * lower-case form, so that names differing only in case share one list.
+     */
+    static String normalizeUser(String user) throws BiscuitException {
+        if (user == null || user.isEmpty() || user.length() > MAX_NAME_LENGTH) {
+            throw new BiscuitException("User names must be 1 to " + MAX_NAME_LENGTH + " characters long.");
+        }
+        for (int i = 0; i < user.length(); i++) {
+            char c = user.charAt(i);
+            boolean isAllowed = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                    || c == '.' || c == '_' || c == '-';
+            if (!isAllowed) {
+                throw new BiscuitException("User names may only contain letters, digits, '.', '_' and '-'.");
+            }
+        }
+        if (user.chars().allMatch(c -> c == '.')) {
+            throw new BiscuitException("User names cannot consist of dots only.");
+        }
+        return user.toLowerCase(Locale.ROOT);
+    }
+
+    private static String normalizeUserUnchecked(String user) {
+        return user.toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Workspace {
+        private final String user;
+        // completed once the tasks are saved after the list was dropped
+        private final CompletableFuture<Void> closed = new CompletableFuture<>();
+        private Biscuit biscuit;
+        private int holders;
+
+        private Workspace(String user) {
+            this.user = user;
+        }
+    }
+}
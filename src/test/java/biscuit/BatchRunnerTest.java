@@ -0,0 +1,89 @@
+package biscuit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Unit tests for {@link BatchRunner}.
+ */
+public class BatchRunnerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private BatchRunner runScript(Storage storage, String script, StringWriter output) throws Exception {
+        BatchRunner runner = new BatchRunner(new Biscuit(storage), 0);
+        runner.run(new BufferedReader(new StringReader(script)), new PrintWriter(output));
+        return runner;
+    }
+
+    @Test
+    public void runScriptSavesSnapshotOnceWithoutJournal() throws Exception {
+        Path dataPath = tempDir.resolve("biscuit.txt");
+        Storage storage = new Storage(dataPath);
+        StringWriter output = new StringWriter();
+
+        BatchRunner runner = runScript(storage, "todo a\n\ntodo b\nmark 2\ndelete 1\n", output);
+
+        assertEquals(4, runner.getCommandCount());
+        assertEquals(0, runner.getErrorCount());
+        assertTrue(output.toString().contains("Added: [T][ ] a"));
+        assertFalse(Files.exists(tempDir.resolve("biscuit.journal")));
+
+        List<Task> loaded = new Storage(dataPath).load();
+        assertEquals(1, loaded.size());
+        assertEquals("[T][X] b", loaded.get(0).toString());
+    }
+
+    @Test
+    public void runReadFailsPartWaySavesCommandsAlreadyRun() throws Exception {
+        Path dataPath = tempDir.resolve("biscuit.txt");
+        BatchRunner runner = new BatchRunner(new Biscuit(new Storage(dataPath)), 0);
+        BufferedReader failingInput = new BufferedReader(new StringReader("todo a\n")) {
+            private boolean hasReadLine;
+
+            @Override
+            public String readLine() throws IOException {
+                if (hasReadLine) {
+                    throw new IOException("disk error");
+                }
+                hasReadLine = true;
+                return super.readLine();
+            }
+        };
+
+        assertThrows(BiscuitException.class, () -> runner.run(failingInput, new PrintWriter(new StringWriter())));
+
+        assertEquals(1, new Storage(dataPath).load().size());
+    }
+
+    @Test
+    public void runFailingCommandsContinuesAndSummarisesErrors() throws Exception {
+        Storage storage = new Storage(tempDir.resolve("biscuit.txt"));
+        StringWriter output = new StringWriter();
+
+        BatchRunner runner = runScript(storage, "todo a\nmark 5\nfrobnicate\ntodo b\nbye\ntodo c\n", output);
+
+        assertEquals(5, runner.getCommandCount());
+        assertEquals(2, runner.getErrorCount());
+        String summary = runner.getErrorSummary();
+        assertTrue(summary.startsWith("2 of 5 commands failed."));
+        assertTrue(summary.contains("line 2: mark 5 -> "));
+        assertTrue(summary.contains("line 3: frobnicate -> "));
+        assertEquals(2, new Storage(tempDir.resolve("biscuit.txt")).load().size());
+    }
+}
@@ -0,0 +1,179 @@
+package biscuit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Unit tests for {@link BiscuitServer}.
+ */
+public class BiscuitServerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private BiscuitServer server;
+
+    @AfterEach
+    public void tearDown() {
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    private Biscuit startServer(int maxConnections) throws Exception {
+        Biscuit biscuit = new Biscuit(new Storage(tempDir.resolve("biscuit.txt")));
+        server = new BiscuitServer(biscuit, 2, 64, maxConnections);
+        startAccepting();
+        return biscuit;
+    }
+
+    private void startAccepting() throws BiscuitException {
+        server.bind(0);
+        Thread acceptor = new Thread(() -> {
+            try {
+                server.serve();
+            } catch (BiscuitException e) {
+                throw new AssertionError(e);
+            }
+        });
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    private static String send(BufferedReader in, Writer out, String command) throws IOException {
+        out.write(command + "\n");
+        out.flush();
+        StringBuilder response = new StringBuilder();
+        for (String line = in.readLine(); line != null && !line.isEmpty(); line = in.readLine()) {
+            response.append(response.length() == 0 ? "" : "\n").append(line);
+        }
+        return response.toString();
+    }
+
+    private Socket connect() throws IOException {
+        return new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+    }
+
+    @Test
+    public void serveCommandsReturnsResponsesEndedByBlankLine() throws Exception {
+        startServer(4);
+        try (Socket socket = connect();
+                BufferedReader in = new BufferedReader(
+                        new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                Writer out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8)) {
+            assertEquals("Added: [T][ ] read book (#1)", send(in, out, "todo read book"));
+            assertEquals("Here are your tasks:\n  1. [T][ ] read book", send(in, out, "list"));
+            assertEquals("Unknown command: nope", send(in, out, "nope"));
+            assertEquals("Bye. Hope to see you again soon!", send(in, out, "bye"));
+            assertEquals(null, in.readLine());
+        }
+    }
+
+    @Test
+    public void serveUnexpectedFailureRepliesWithoutDetails() throws Exception {
+        Storage failingStorage = new Storage(tempDir.resolve("biscuit.txt")) {
+            @Override
+            public void appendAdd(Task task) {
+                throw new IllegalStateException("journal is broken");
+            }
+        };
+        server = new BiscuitServer(new Biscuit(failingStorage), 2, 64, 4);
+        startAccepting();
+        try (Socket socket = connect();
+                BufferedReader in = new BufferedReader(
+                        new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                Writer out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8)) {
+            assertEquals("Error: internal error", send(in, out, "todo read book"));
+        }
+    }
+
+    @Test
+    public void serveConcurrentClientsAppliesEveryCommand() throws Exception {
+        Biscuit biscuit = startServer(16);
+        int clients = 8;
+        int perClient = 50;
+
+        List<Thread> threads = new ArrayList<>();
+        List<Throwable> failures = new ArrayList<>();
+        for (int c = 0; c < clients; c++) {
+            int id = c;
+            Thread thread = new Thread(() -> {
+                try (Socket socket = connect();
+                        BufferedReader in = new BufferedReader(
+                                new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                        Writer out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8)) {
+                    for (int i = 0; i < perClient; i++) {
+                        assertTrue(send(in, out, "todo client " + id + " task " + i).startsWith("Added:"));
+                        assertTrue(send(in, out, "find client " + id).startsWith("Matching tasks:"));
+                    }
+                } catch (Throwable e) {
+                    synchronized (failures) {
+                        failures.add(e);
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(List.of(), failures);
+        String page = biscuit.execute("list /page 1 /size 1");
+        assertTrue(page.startsWith("Here are your tasks (1-1 of " + clients * perClient + "):"), page);
+    }
+
+    @Test
+    public void serveTooManyConnectionsRejectsExtraClient() throws Exception {
+        startServer(1);
+        try (Socket first = connect();
+                BufferedReader firstIn = new BufferedReader(
+                        new InputStreamReader(first.getInputStream(), StandardCharsets.UTF_8));
+                Writer firstOut = new OutputStreamWriter(first.getOutputStream(), StandardCharsets.UTF_8)) {
+            // a reply proves the first connection has been accepted
+            send(firstIn, firstOut, "help");
+
+            try (Socket second = connect();
+                    BufferedReader secondIn = new BufferedReader(
+                            new InputStreamReader(second.getInputStream(), StandardCharsets.UTF_8))) {
+                assertEquals(BiscuitServer.TOO_MANY_CONNECTIONS_MESSAGE, secondIn.readLine());
+            }
+        }
+    }
+
+    @Test
+    public void serveWorkspacesRoutesCommandsToChosenUser() throws Exception {
+        server = new BiscuitServer(new Workspaces(tempDir, 4), 2, 64, 4);
+        startAccepting();
+
+        try (Socket socket = connect();
+                BufferedReader in = new BufferedReader(
+                        new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                Writer out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8)) {
+            assertEquals("Choose a task list first: user <name>", send(in, out, "list"));
+            assertEquals("Now using the task list of alice.", send(in, out, "user alice"));
+            send(in, out, "todo alice task");
+            assertEquals("Now using the task list of bob.", send(in, out, "USER bob"));
+            assertEquals("No tasks yet.", send(in, out, "list"));
+            send(in, out, "user alice");
+            assertEquals("Here are your tasks:\n  1. [T][ ] alice task", send(in, out, "list"));
+        }
+    }
+}
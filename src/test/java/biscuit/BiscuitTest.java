@@ -0,0 +1,147 @@
+package biscuit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Unit tests for {@link Biscuit}.
+ */
+public class BiscuitTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void executeTodoWhileLoadingAddedAfterLoadedTasks() throws Exception {
+        Path dataPath = tempDir.resolve("biscuit.txt");
+        new Storage(dataPath).save(List.of(new Todo("loaded task")));
+        CountDownLatch loadAllowed = new CountDownLatch(1);
+        Storage slowStorage = new Storage(dataPath) {
+            @Override
+            public List<Task> load() throws BiscuitException {
+                try {
+                    loadAllowed.await();
+                } catch (InterruptedException e) {
+                    throw new BiscuitException("Interrupted");
+                }
+                return super.load();
+            }
+        };
+
+        Biscuit biscuit = new Biscuit(slowStorage);
+        // answered while the load is still blocked
+        assertEquals("Added: [T][ ] early task (#2)", biscuit.execute("todo early task"));
+        assertEquals("Added: [T][ ] second early task (#3)", biscuit.execute("todo second early task"));
+
+        loadAllowed.countDown();
+        assertEquals("Here are your tasks:\n  1. [T][ ] loaded task\n  2. [T][ ] early task"
+                + "\n  3. [T][ ] second early task", biscuit.execute("list"));
+        biscuit.shutdown();
+        assertEquals(3, new Storage(dataPath).load().get(2).getId());
+    }
+
+    @Test
+    public void executeTodoWhileLoadingOldDataFileWaitsForItsId() throws Exception {
+        Path dataPath = tempDir.resolve("biscuit.txt");
+        // written before the data file recorded the next id
+        Files.writeString(dataPath, "T\t0\tloaded task\t4\n");
+
+        Biscuit biscuit = new Biscuit(new Storage(dataPath));
+        assertEquals("Added: [T][ ] early task (#5)", biscuit.execute("todo early task"));
+        biscuit.shutdown();
+    }
+
+    @Test
+    public void enableRemindersBeforeLoadFinishesRemindsOfLaterTasks() throws Exception {
+        CountDownLatch loadAllowed = new CountDownLatch(1);
+        Storage slowStorage = new Storage(tempDir.resolve("biscuit.txt")) {
+            @Override
+            public List<Task> load() throws BiscuitException {
+                try {
+                    loadAllowed.await();
+                } catch (InterruptedException e) {
+                    throw new BiscuitException("Interrupted");
+                }
+                return super.load();
+            }
+        };
+        LocalDateTime now = LocalDateTime.of(2026, 3, 1, 8, 0);
+        Clock clock = Clock.fixed(now.atZone(ZoneId.systemDefault()).toInstant(), ZoneId.systemDefault());
+        BlockingQueue<String> messages = new LinkedBlockingQueue<>();
+
+        Biscuit biscuit = new Biscuit(slowStorage);
+        biscuit.enableReminders(clock, messages::add);
+        loadAllowed.countDown();
+        biscuit.execute("event standup /from 2026-03-01 08:15 /to 2026-03-01 08:30");
+
+        assertEquals("Reminder: starting in 15 minutes: [E][ ] standup "
+                + "(from: Mar 01 2026 08:15 to: Mar 01 2026 08:30)", messages.poll(5, TimeUnit.SECONDS));
+        biscuit.shutdown();
+    }
+
+    @Test
+    public void executeAfterFailedLoadReportsFailureOnce() throws Exception {
+        Path dataPath = tempDir.resolve("biscuit.txt");
+        Files.writeString(dataPath, "garbage\n");
+
+        Biscuit biscuit = new Biscuit(new Storage(dataPath));
+        assertEquals("Corrupted data line: garbage\nStarting with an empty task list.\nNo tasks yet.",
+                biscuit.execute("list"));
+        assertEquals("No tasks yet.", biscuit.execute("list"));
+    }
+
+    @Test
+    public void executeListViewsKeepTaskNumbers() throws Exception {
+        Biscuit biscuit = new Biscuit(new Storage(tempDir.resolve("biscuit.txt")));
+        biscuit.execute("deadline essay /by 2026-03-10");
+        biscuit.execute("todo read book");
+        biscuit.execute("within certificate /from 2026-02-01 /to 2026-02-05");
+        biscuit.execute("deadline draft /by 2026-02-20");
+        biscuit.execute("mark 3");
+
+        assertEquals("Here are your tasks by due date:\n"
+                + "  3. [P][X] certificate (between: Feb 01 2026 and Feb 05 2026)\n"
+                + "  4. [D][ ] draft (by: Feb 20 2026)\n"
+                + "  1. [D][ ] essay (by: Mar 10 2026)", biscuit.execute("list /sort due"));
+        assertEquals("Here are your undone tasks (1-2 of 3):\n"
+                + "  1. [D][ ] essay (by: Mar 10 2026)\n"
+                + "  2. [T][ ] read book\n"
+                + "More: list /undone /page 2 /size 2", biscuit.execute("list /undone /size 2"));
+
+        biscuit.execute("unmark 3");
+        biscuit.execute("delete 1");
+        assertEquals("Here are your undone tasks (3-3 of 3):\n"
+                + "  3. [D][ ] draft (by: Feb 20 2026)", biscuit.execute("list /undone /page 2 /size 2"));
+        assertThrows(BiscuitException.class, () -> biscuit.execute("list /sort title"));
+        assertThrows(BiscuitException.class, () -> biscuit.execute("list /undone /sort due"));
+    }
+
+    @Test
+    public void executeExportThenImportAppendsAndSavesTasks() throws Exception {
+        Path dataPath = tempDir.resolve("biscuit.txt");
+        Path csvPath = tempDir.resolve("tasks.csv");
+        Biscuit biscuit = new Biscuit(new Storage(dataPath));
+        biscuit.execute("todo read book");
+        biscuit.execute("deadline essay /by 2026-03-10");
+
+        assertEquals("Exported 2 tasks to " + csvPath + ".", biscuit.execute("export " + csvPath));
+        assertEquals("Imported 2 tasks from " + csvPath + ".", biscuit.execute("import " + csvPath));
+        assertEquals("  4. [D][ ] essay (by: Mar 10 2026)", biscuit.execute("list").split("\n")[4]);
+        biscuit.shutdown();
+        assertEquals(4, new Storage(dataPath).load().size());
+    }
+}
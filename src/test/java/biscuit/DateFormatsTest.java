@@ -0,0 +1,68 @@
+package biscuit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link DateFormats}.
+ */
+public class DateFormatsTest {
+
+    private static final DateTimeFormatter DATE_FMT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final DateTimeFormatter DATE_TIME_FMT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    @Test
+    public void parseDateEveryDayOfLeapCycleMatchesFormatter() {
+        for (LocalDate date = LocalDate.of(1999, 12, 1); date.getYear() < 2005; date = date.plusDays(1)) {
+            String text = date.format(DATE_FMT);
+            assertEquals(date, DateFormats.parseDate(text));
+            assertEquals(text, DateFormats.formatDate(date));
+        }
+    }
+
+    @Test
+    public void parseDateOddInputBehavesLikeFormatter() {
+        String[] inputs = {"2026-02-30", "2026-04-31", "2100-02-29", "2000-02-29", "0001-01-01"};
+        for (String input : inputs) {
+            assertEquals(LocalDate.parse(input, DATE_FMT), DateFormats.parseDate(input));
+        }
+
+        String[] invalid = {"2026-13-01", "2026-00-10", "2026-01-32", "2026-1-5", "20260105", "2026/01/05",
+            "0000-01-01", "\uFF12\uFF10\uFF12\uFF16-01-01", ""};
+        for (String input : invalid) {
+            assertThrows(DateTimeParseException.class, () -> LocalDate.parse(input, DATE_FMT));
+            assertThrows(DateTimeParseException.class, () -> DateFormats.parseDate(input));
+        }
+    }
+
+    @Test
+    public void parseDateTimeValidAndInvalidMatchesFormatter() {
+        LocalDateTime dateTime = LocalDateTime.of(2026, 1, 21, 19, 5);
+        assertEquals(dateTime, DateFormats.parseDateTime("2026-01-21 19:05"));
+        assertEquals("2026-01-21 19:05", DateFormats.formatDateTime(dateTime));
+        assertEquals("2026-01-21 00:00", DateFormats.formatDateTime(dateTime.toLocalDate().atStartOfDay()));
+        assertEquals(LocalDateTime.parse("2026-02-30 23:59", DATE_TIME_FMT),
+                DateFormats.parseDateTime("2026-02-30 23:59"));
+        assertEquals(LocalDateTime.parse("2026-01-21 24:00", DATE_TIME_FMT),
+                DateFormats.parseDateTime("2026-01-21 24:00"));
+
+        String[] invalid = {"2026-01-21 25:00", "2026-01-21 12:60", "2026-01-21T12:00", "2026-01-21 9:00",
+            "2026-01-21"};
+        for (String input : invalid) {
+            assertThrows(DateTimeParseException.class, () -> DateFormats.parseDateTime(input));
+        }
+    }
+
+    @Test
+    public void formatDateYearBeyondFourDigitsMatchesFormatter() {
+        LocalDate date = LocalDate.of(12026, 3, 4);
+        assertEquals(date.format(DATE_FMT), DateFormats.formatDate(date));
+    }
+}
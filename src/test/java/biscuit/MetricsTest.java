@@ -0,0 +1,68 @@
+package biscuit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Unit tests for {@link Metrics}.
+ */
+public class MetricsTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void histogramPercentilesBoundedByBucketTopAndMax() {
+        Metrics.Histogram histogram = new Metrics.Histogram();
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i);
+        }
+
+        assertEquals(100, histogram.getCount());
+        assertEquals(50.5, histogram.getMean(), 1e-9);
+        assertEquals(100, histogram.getMax());
+        // the 50th value is 50, in the bucket 32..63
+        assertEquals(63, histogram.getPercentile(0.5));
+        // the 99th value is 99, in the bucket 64..127, capped by the maximum
+        assertEquals(100, histogram.getPercentile(0.99));
+        assertEquals(1, histogram.getPercentile(0));
+    }
+
+    @Test
+    public void getSummaryRecordedCommandsListsCountsAndErrors() {
+        Metrics metrics = new Metrics();
+        assertTrue(metrics.getSummary().startsWith("No commands run yet."));
+
+        metrics.recordCommand(Command.TODO, 2_000, false);
+        metrics.recordCommand(Command.TODO, 4_000, true);
+        metrics.recordSnapshotSave(1_000_000, 2048);
+        metrics.recordFindResults(3);
+
+        String summary = metrics.getSummary();
+        assertTrue(summary.contains("\ntodo                2      1    3.0 us"), summary);
+        assertTrue(summary.contains("Snapshot saves: 1, 2.0 KB written"), summary);
+        assertEquals(2, (long) metrics.getCommandCounts().get("todo"));
+        assertEquals(0, (long) metrics.getCommandCounts().get("list"));
+        assertEquals(1, metrics.getFindCount());
+
+        metrics.reset();
+        assertEquals(0, (long) metrics.getCommandCounts().get("todo"));
+    }
+
+    @Test
+    public void executeStatsReportsCommandsRun() throws BiscuitException {
+        Biscuit biscuit = new Biscuit(new Storage(tempDir.resolve("biscuit.txt")));
+        biscuit.execute("todo read book");
+        biscuit.execute("find book");
+
+        String stats = biscuit.execute("stats");
+        assertTrue(stats.contains("\ntodo "), stats);
+        assertTrue(stats.contains("\nfind "), stats);
+        assertTrue(stats.contains("Find results: "), stats);
+    }
+}
@@ -1,5 +1,6 @@
 package biscuit;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -54,4 +55,76 @@ public class ParserTest {
     public void requireNonEmptyNonBlankReturnsTrimmed() throws Exception {
         assertEquals("hello", Parser.requireNonEmpty("  hello  ", "msg"));
     }
+
+    @Test
+    public void parseCommandTrailingOptionsSplitsLeadingText() throws Exception {
+        ParsedCommand command = Parser.parseCommand("  FIND read a/b  book /limit 5 /after 10 ");
+
+        assertEquals(Command.FIND, command.getCommand());
+        assertEquals("read a/b  book /limit 5 /after 10", command.getArgs());
+        assertEquals("read a/b  book", command.getText());
+        assertEquals("5", command.getOption("limit"));
+        assertEquals("10", command.getOption("after"));
+    }
+
+    @Test
+    public void parseCommandMultiWordValuesRunToNextOption() throws Exception {
+        ParsedCommand command = Parser.parseCommand("event meet /tom /to 2026-01-21 21:00 /from 2026-01-21 19:00");
+
+        assertEquals("meet /tom", command.getText());
+        assertEquals("2026-01-21 19:00", command.getOption("from"));
+        assertEquals("2026-01-21 21:00", command.getOption("to"));
+        assertEquals("x /by y", Parser.parseCommand("todo x /by y").getArgs());
+        assertEquals(Command.HELP, Parser.parseCommand("display").getCommand());
+    }
+
+    @Test
+    public void parseCommandInvalidOptionsThrowsBiscuitException() {
+        assertThrows(BiscuitException.class, () -> Parser.parseCommand("list /page"));
+        assertThrows(BiscuitException.class, () -> Parser.parseCommand("list /page 1 /page 2"));
+        assertThrows(BiscuitException.class, () -> Parser.parseCommand("deadline x /by  "));
+        assertThrows(BiscuitException.class, () -> Parser.parseCommand("frobnicate"));
+        assertThrows(BiscuitException.class, () -> Parser.parseCommand("   "));
+    }
+
+    @Test
+    public void parseSelectionNumbersAndRangesReturnsSortedDistinctIndices() throws Exception {
+        TaskList tasks = new TaskList();
+        for (int i = 0; i < 30; i++) {
+            tasks.add(new Todo("task " + i));
+        }
+
+        assertArrayEquals(new int[] {2}, Parser.parseSelection("3", tasks, "mark"));
+        assertArrayEquals(new int[] {2, 6, 9, 10, 11}, Parser.parseSelection("10-12, 7,3,11", tasks, "delete"));
+        assertEquals(30, Parser.parseSelection("1-30", tasks, "mark").length);
+    }
+
+    @Test
+    public void parseSelectionInvalidPartThrowsBiscuitException() {
+        TaskList tasks = new TaskList();
+        tasks.add(new Todo("read book"));
+        tasks.add(new Todo("buy milk"));
+
+        assertThrows(BiscuitException.class, () -> Parser.parseSelection("1,3", tasks, "mark"));
+        assertThrows(BiscuitException.class, () -> Parser.parseSelection("2-1", tasks, "mark"));
+        assertThrows(BiscuitException.class, () -> Parser.parseSelection("0-2", tasks, "mark"));
+        assertThrows(BiscuitException.class, () -> Parser.parseSelection("1,,2", tasks, "mark"));
+        assertThrows(BiscuitException.class, () -> Parser.parseSelection("-1", tasks, "mark"));
+        assertThrows(BiscuitException.class, () -> Parser.parseSelection("1", new TaskList(), "mark"));
+        assertThrows(BiscuitException.class, () -> Parser.parseSelection("#3", tasks, "mark"));
+        assertThrows(BiscuitException.class, () -> Parser.parseSelection("#x", tasks, "mark"));
+    }
+
+    @Test
+    public void parseSelectionTaskIdsFollowTasksAfterDeletion() throws Exception {
+        TaskList tasks = new TaskList();
+        for (int i = 0; i < 5; i++) {
+            tasks.add(new Todo("task " + i));
+        }
+        tasks.remove(0);
+
+        // task 4 was added fourth, and is now third in the list
+        assertArrayEquals(new int[] {0, 2}, Parser.parseSelection("#4, 1", tasks, "mark"));
+        assertThrows(BiscuitException.class, () -> Parser.parseSelection("#1", tasks, "mark"));
+    }
 }
@@ -0,0 +1,74 @@
+package biscuit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link ReminderScheduler}.
+ */
+public class ReminderSchedulerTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 3, 1, 8, 0);
+
+    private static Clock fixedClock() {
+        return Clock.fixed(NOW.toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+    }
+
+    @Test
+    public void taskListChangesUpdateNextReminder() {
+        ReminderScheduler reminders = new ReminderScheduler(fixedClock(), message -> { });
+        Deadline essay = new Deadline("essay", LocalDate.of(2026, 3, 10));
+        TaskList tasks = new TaskList(List.of(new Todo("read book"), essay,
+                new Deadline("overdue", LocalDate.of(2026, 2, 1))));
+        tasks.setListener(reminders);
+        reminders.reset(tasks.asList());
+        assertEquals(instant(2026, 3, 10, 9, 0), reminders.getNextReminderTime());
+
+        tasks.add(new Event("meeting", LocalDateTime.of(2026, 3, 2, 14, 0), LocalDateTime.of(2026, 3, 2, 15, 0)));
+        assertEquals(instant(2026, 3, 2, 13, 45), reminders.getNextReminderTime());
+
+        tasks.removeAll(new int[] {3});
+        assertEquals(instant(2026, 3, 10, 9, 0), reminders.getNextReminderTime());
+
+        tasks.markAll(new int[] {1});
+        assertNull(reminders.getNextReminderTime());
+        tasks.unmarkAll(new int[] {1});
+        assertEquals(instant(2026, 3, 10, 9, 0), reminders.getNextReminderTime());
+        reminders.close();
+    }
+
+    @Test
+    public void reminderTimeReachedSendsMessage() throws Exception {
+        LocalDateTime start = LocalDateTime.of(2026, 3, 1, 10, 0);
+        Instant reminderTime = start.toInstant(ZoneOffset.UTC).minus(ReminderScheduler.EVENT_LEAD);
+        // a clock running 200 ms before the reminder is due
+        Clock clock = Clock.offset(Clock.systemUTC(),
+                Duration.between(Instant.now(), reminderTime.minusMillis(200)));
+        BlockingQueue<String> messages = new LinkedBlockingQueue<>();
+        ReminderScheduler reminders = new ReminderScheduler(clock, messages::add);
+
+        reminders.taskAdded(new Event("meeting", start, start.plusHours(1)));
+
+        assertEquals("Reminder: starting in 15 minutes: [E][ ] meeting (from: Mar 01 2026 10:00 to: Mar 01 2026 11:00)",
+                messages.poll(5, TimeUnit.SECONDS));
+        assertNull(reminders.getNextReminderTime());
+        reminders.close();
+    }
+
+    private static Instant instant(int year, int month, int day, int hour, int minute) {
+        return LocalDateTime.of(year, month, day, hour, minute).toInstant(ZoneOffset.UTC);
+    }
+}
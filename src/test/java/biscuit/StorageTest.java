@@ -1,6 +1,7 @@
 package biscuit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -9,13 +10,16 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 /**
  * Unit tests for {@link Storage}.
@@ -23,9 +27,15 @@ import org.junit.jupiter.api.Test;
 public class StorageTest {
 
     private static final Path DATA_PATH = Paths.get("data", "biscuit.txt");
+    private static final Path JOURNAL_PATH = Paths.get("data", "biscuit.journal");
+
+    @TempDir
+    Path tempDir;
 
     private byte[] backup;
     private boolean hadOriginalFile;
+    private byte[] journalBackup;
+    private boolean hadOriginalJournal;
 
     @BeforeEach
     public void setUp() throws Exception {
@@ -35,19 +45,31 @@ public class StorageTest {
         } else {
             hadOriginalFile = false;
         }
+        if (Files.exists(JOURNAL_PATH)) {
+            hadOriginalJournal = true;
+            journalBackup = Files.readAllBytes(JOURNAL_PATH);
+        } else {
+            hadOriginalJournal = false;
+        }
 
         Files.createDirectories(DATA_PATH.getParent());
         Files.deleteIfExists(DATA_PATH);
+        Files.deleteIfExists(JOURNAL_PATH);
     }
 
     @AfterEach
     public void tearDown() throws Exception {
         Files.deleteIfExists(DATA_PATH);
+        Files.deleteIfExists(JOURNAL_PATH);
 
         if (hadOriginalFile) {
             Files.createDirectories(DATA_PATH.getParent());
             Files.write(DATA_PATH, backup);
         }
+        if (hadOriginalJournal) {
+            Files.createDirectories(JOURNAL_PATH.getParent());
+            Files.write(JOURNAL_PATH, journalBackup);
+        }
     }
 
     @Test
@@ -122,4 +144,256 @@ public class StorageTest {
         Storage storage = new Storage();
         assertThrows(BiscuitException.class, storage::load);
     }
+
+    @Test
+    public void loadJournalAfterSnapshotReplaysRecords() throws Exception {
+        Storage storage = new Storage(tempDir.resolve("biscuit.txt"));
+        storage.save(List.of(new Todo("read book"), new Todo("buy milk")));
+
+        storage.appendAdd(new Deadline("return book", LocalDate.of(2026, 2, 6)));
+        storage.appendMark(2);
+        storage.appendDelete(0);
+
+        List<Task> loaded = new Storage(tempDir.resolve("biscuit.txt")).load();
+        assertEquals(2, loaded.size());
+        assertEquals("buy milk", loaded.get(0).getDescription());
+        assertEquals("return book", loaded.get(1).getDescription());
+        assertTrue(loaded.get(1).isDone());
+    }
+
+    @Test
+    public void loadBulkJournalRecordsReplaysRanges() throws Exception {
+        Path dataPath = tempDir.resolve("biscuit.txt");
+        Storage storage = new Storage(dataPath);
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            tasks.add(new Todo("task " + i));
+        }
+        storage.save(tasks);
+
+        storage.appendMark(0, 1, 2, 5, 8, 9);
+        storage.appendDelete(1, 2, 3, 7);
+        String journal = Files.readString(tempDir.resolve("biscuit.journal"), StandardCharsets.UTF_8);
+        assertTrue(journal.contains("mark\t0-2,5,8-9\n"), journal);
+        assertTrue(journal.contains("delete\t1-3,7\n"), journal);
+
+        List<Task> loaded = new Storage(dataPath).load();
+        assertEquals(6, loaded.size());
+        assertEquals("task 0", loaded.get(0).getDescription());
+        assertEquals("task 4", loaded.get(1).getDescription());
+        assertEquals("task 9", loaded.get(5).getDescription());
+        assertTrue(loaded.get(0).isDone());
+        assertTrue(loaded.get(2).isDone());
+        assertFalse(loaded.get(1).isDone());
+    }
+
+    @Test
+    public void loadLinesWithoutIdsAssignsSameIdsOnEveryLoad() throws Exception {
+        Path dataPath = tempDir.resolve("biscuit.txt");
+        Files.writeString(dataPath, "T\t0\tread book\nD\t0\treturn book\t2026-02-06\n", StandardCharsets.UTF_8);
+        Storage storage = new Storage(dataPath);
+        TaskList tasks = new TaskList(storage.load());
+        storage.appendDelete(0);
+        tasks.remove(0);
+        Todo added = new Todo("buy milk");
+        tasks.add(added);
+        storage.appendAdd(added);
+
+        List<Task> loaded = new Storage(dataPath).load();
+        assertEquals(2, loaded.get(0).getId());
+        assertEquals(3, loaded.get(1).getId());
+
+        storage.save(loaded);
+        assertTrue(Files.readString(dataPath, StandardCharsets.UTF_8).endsWith("\tbuy milk\t3\n"));
+        assertEquals(3, new Storage(dataPath).load().get(1).getId());
+    }
+
+    @Test
+    public void loadIdsOutOfOrderThrowsBiscuitException() throws Exception {
+        Path dataPath = tempDir.resolve("biscuit.txt");
+        Files.writeString(dataPath, "T\t0\tread book\t5\nT\t0\tbuy milk\t2\n", StandardCharsets.UTF_8);
+
+        assertThrows(BiscuitException.class, () -> new Storage(dataPath).load());
+    }
+
+    @Test
+    public void saveAfterJournalRecordsCompactsJournal() throws Exception {
+        Path dataPath = tempDir.resolve("biscuit.txt");
+        Storage storage = new Storage(dataPath);
+        storage.appendAdd(new Todo("read book"));
+        assertTrue(Files.exists(tempDir.resolve("biscuit.journal")));
+
+        storage.save(List.of(new Todo("read book")));
+
+        assertTrue(Files.notExists(tempDir.resolve("biscuit.journal")));
+        assertEquals(1, new Storage(dataPath).load().size());
+    }
+
+    @Test
+    public void loadStaleJournalIsIgnored() throws Exception {
+        Path dataPath = tempDir.resolve("biscuit.txt");
+        Storage storage = new Storage(dataPath);
+        storage.save(List.of(new Todo("read book")));
+        storage.appendAdd(new Todo("buy milk"));
+
+        // snapshot rewritten behind the journal's back, e.g. a crash mid-compaction
+        Files.writeString(dataPath, "T\t0\tread book\nT\t0\tbuy milk\n", StandardCharsets.UTF_8);
+
+        assertEquals(2, new Storage(dataPath).load().size());
+    }
+
+    @Test
+    public void loadTornJournalRecordIsIgnored() throws Exception {
+        Path dataPath = tempDir.resolve("biscuit.txt");
+        Storage storage = new Storage(dataPath);
+        storage.appendAdd(new Todo("read book"));
+        Files.writeString(tempDir.resolve("biscuit.journal"), "add\tT\t0\tbuy",
+                StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        assertEquals(1, new Storage(dataPath).load().size());
+    }
+
+    @Test
+    public void appendAfterTornJournalRecordReloads() throws Exception {
+        Path dataPath = tempDir.resolve("biscuit.txt");
+        Storage storage = new Storage(dataPath);
+        storage.appendAdd(new Todo("read book"));
+        Files.writeString(tempDir.resolve("biscuit.journal"), "add\tT\t0\tbuy",
+                StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        Storage reopened = new Storage(dataPath);
+        assertEquals(1, reopened.load().size());
+        reopened.appendDelete(0);
+
+        assertEquals(0, new Storage(dataPath).load().size());
+    }
+
+    @Test
+    public void flushWriteBehindWritesBufferedChangesTogether() throws Exception {
+        Path dataPath = tempDir.resolve("biscuit.txt");
+        Storage storage = new Storage(dataPath);
+        storage.enableWriteBehind(60_000, 1_000);
+
+        storage.appendAdd(new Todo("read book"));
+        storage.appendAdd(new Todo("buy milk"));
+        storage.appendMark(1);
+        assertTrue(Files.notExists(tempDir.resolve("biscuit.journal")));
+
+        storage.flush();
+
+        List<Task> loaded = new Storage(dataPath).load();
+        assertEquals(2, loaded.size());
+        assertTrue(loaded.get(1).isDone());
+        storage.close();
+    }
+
+    @Test
+    public void loadLargeFileInParallelMatchesSequentialLoad() throws Exception {
+        Path dataPath = tempDir.resolve("biscuit.txt");
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 60_000; i++) {
+            content.append("D\t").append(i % 2).append("\ttask number ").append(i).append("\t2026-02-06\n");
+        }
+        Files.writeString(dataPath, content, StandardCharsets.UTF_8);
+
+        Storage parallel = new Storage(dataPath);
+        parallel.setParallelLoadMinBytes(0);
+        List<Task> loaded = parallel.load();
+
+        assertEquals(60_000, loaded.size());
+        for (int i = 0; i < loaded.size(); i++) {
+            assertEquals("task number " + i, loaded.get(i).getDescription());
+            assertEquals(i % 2 == 1, loaded.get(i).isDone());
+        }
+
+        // the combined chunk checksum must match, or this journal would be dropped as stale
+        parallel.appendAdd(new Todo("read book"));
+        Storage sequential = new Storage(dataPath);
+        sequential.setParallelLoadMinBytes(Long.MAX_VALUE);
+        assertEquals(60_001, sequential.load().size());
+    }
+
+    @Test
+    public void saveThenLoadBinaryFormatRoundTripsAndIsDetected() throws Exception {
+        Path dataPath = tempDir.resolve("biscuit.txt");
+        Storage storage = new Storage(dataPath);
+        storage.setFormat(Storage.Format.BINARY);
+
+        Todo t = new Todo("read book \u2615");
+        t.mark();
+        storage.save(List.of(t,
+                new Deadline("return book", LocalDate.of(2026, 2, 6)),
+                new Event("project meeting", LocalDateTime.of(2026, 8, 6, 14, 0),
+                        LocalDateTime.of(2026, 8, 6, 16, 0)),
+                new DoWithinPeriodTask("collect certificate", LocalDate.of(2026, 1, 15),
+                        LocalDate.of(2026, 1, 25))));
+        storage.appendUnmark(0);
+
+        Storage reloaded = new Storage(dataPath);
+        List<Task> loaded = reloaded.load();
+        assertEquals(Storage.Format.BINARY, reloaded.getFormat());
+        assertEquals(4, loaded.size());
+        assertEquals("read book \u2615", loaded.get(0).getDescription());
+        assertFalse(loaded.get(0).isDone());
+        assertEquals(LocalDate.of(2026, 2, 6), ((Deadline) loaded.get(1)).getBy());
+        assertEquals(LocalDateTime.of(2026, 8, 6, 16, 0), ((Event) loaded.get(2)).getTo());
+        assertEquals(LocalDate.of(2026, 1, 25), ((DoWithinPeriodTask) loaded.get(3)).getEnd());
+        assertEquals(4, loaded.get(3).getId());
+
+        reloaded.save(loaded);
+        assertEquals(4, new Storage(dataPath).load().get(3).getId());
+
+        reloaded.setFormat(Storage.Format.TEXT);
+        reloaded.save(loaded);
+        List<String> lines = Files.readAllLines(dataPath, StandardCharsets.UTF_8);
+        assertEquals("next\t5", lines.get(0));
+        assertTrue(lines.get(1).startsWith("T\t0\tread book"));
+    }
+
+    @Test
+    public void loadAfterLastTaskDeletedDoesNotReuseItsId() throws Exception {
+        Path dataPath = tempDir.resolve("biscuit.txt");
+        Storage storage = new Storage(dataPath);
+        TaskList tasks = new TaskList(storage.load(), storage.getNextId());
+        for (String description : List.of("first", "second")) {
+            Todo todo = new Todo(description);
+            tasks.add(todo);
+            storage.appendAdd(todo);
+        }
+        tasks.remove(1);
+        storage.appendDelete(1);
+
+        Storage reloaded = new Storage(dataPath);
+        List<Task> loaded = reloaded.load();
+        assertEquals(3, reloaded.getNextId());
+        // compaction drops the deleted task, but not its id
+        reloaded.setFormat(Storage.Format.BINARY);
+        reloaded.save(loaded);
+
+        Storage compacted = new Storage(dataPath);
+        TaskList reloadedTasks = new TaskList(compacted.load(), compacted.getNextId());
+        Todo added = new Todo("third");
+        reloadedTasks.add(added);
+        assertEquals(3, added.getId());
+    }
+
+    @Test
+    public void readNextIdMatchesLoadWithoutLoadingTasks() throws Exception {
+        Path dataPath = tempDir.resolve("biscuit.txt");
+        Storage storage = new Storage(dataPath);
+        assertEquals(1, storage.readNextId());
+        storage.save(List.of(new Todo("no id yet"), new Todo("nor this")));
+        Todo added = new Todo("added");
+        added.setId(7);
+        storage.appendAdd(added);
+        storage.appendAdd(new Todo("journaled without an id"));
+
+        Storage reloaded = new Storage(dataPath);
+        assertEquals(9, reloaded.readNextId());
+        reloaded.load();
+        assertEquals(9, reloaded.getNextId());
+
+        Files.writeString(dataPath, "T\t0\twritten before the next id was recorded\n");
+        assertEquals(0, new Storage(dataPath).readNextId());
+    }
 }
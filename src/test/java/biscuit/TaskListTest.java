@@ -0,0 +1,299 @@
+package biscuit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link TaskList}.
+ */
+public class TaskListTest {
+
+    @Test
+    public void findSubstringIgnoringCaseReturnsMatchesInListOrder() {
+        TaskList tasks = new TaskList(List.of(new Todo("Read book"), new Todo("buy milk"),
+                new Todo("return BOOKS")));
+
+        List<Task> matches = tasks.find("boOk");
+
+        assertEquals(2, matches.size());
+        assertEquals("Read book", matches.get(0).getDescription());
+        assertEquals("return BOOKS", matches.get(1).getDescription());
+        assertEquals(1, tasks.find("y m").size());
+        assertEquals(3, tasks.find("B").size());
+        assertTrue(tasks.find("library").isEmpty());
+    }
+
+    @Test
+    public void findAfterRemoveSkipsRemovedTask() {
+        TaskList tasks = new TaskList();
+        tasks.add(new Todo("read book"));
+        tasks.add(new Todo("return book"));
+
+        tasks.remove(0);
+
+        List<Task> matches = tasks.find("book");
+        assertEquals(1, matches.size());
+        assertEquals("return book", matches.get(0).getDescription());
+    }
+
+    @Test
+    public void findAfterManyRemovalsMatchesLinearScan() {
+        TaskList tasks = new TaskList();
+        List<Task> expected = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            tasks.add(new Todo("task " + i + (i % 3 == 0 ? " gym" : " read")));
+        }
+        for (int i = tasks.size() - 1; i >= 0; i -= 2) {
+            tasks.remove(i);
+        }
+        for (int i = 0; i < tasks.size(); i++) {
+            if (tasks.get(i).getDescription().contains("gym")) {
+                expected.add(tasks.get(i));
+            }
+        }
+
+        assertEquals(expected, tasks.find("GYM"));
+    }
+
+    @Test
+    public void findDueBetweenDeadlinesAndPeriodsReturnsByDueDate() {
+        Deadline late = new Deadline("essay", LocalDate.of(2026, 3, 10));
+        DoWithinPeriodTask period = new DoWithinPeriodTask("certificate", LocalDate.of(2026, 2, 1),
+                LocalDate.of(2026, 3, 5));
+        Event event = new Event("meeting", LocalDateTime.of(2026, 3, 6, 14, 0),
+                LocalDateTime.of(2026, 3, 6, 16, 0));
+        TaskList tasks = new TaskList(List.of(late, period, event, new Todo("read book")));
+
+        assertEquals(List.of(period, late),
+                tasks.findDueBetween(LocalDate.of(2026, 3, 1), LocalDate.of(2026, 3, 31)));
+        assertTrue(tasks.findDueBetween(LocalDate.of(2026, 3, 11), LocalDate.of(2026, 4, 1)).isEmpty());
+    }
+
+    @Test
+    public void findOverlappingRandomIntervalsMatchesLinearScan() {
+        Random random = new Random(7);
+        TaskList tasks = new TaskList();
+        LocalDateTime base = LocalDateTime.of(2026, 1, 1, 0, 0);
+        for (int i = 0; i < 2000; i++) {
+            LocalDateTime from = base.plusMinutes(random.nextInt(100_000));
+            tasks.add(new Event("event " + i, from, from.plusMinutes(random.nextInt(5_000))));
+        }
+        for (int i = 0; i < 500; i++) {
+            tasks.remove(random.nextInt(tasks.size()));
+        }
+
+        for (int q = 0; q < 50; q++) {
+            LocalDateTime from = base.plusMinutes(random.nextInt(100_000));
+            LocalDateTime to = from.plusMinutes(random.nextInt(3_000));
+
+            List<Task> expected = new ArrayList<>();
+            for (int i = 0; i < tasks.size(); i++) {
+                Event e = (Event) tasks.get(i);
+                if (!e.getFrom().isAfter(to) && !e.getTo().isBefore(from)) {
+                    expected.add(e);
+                }
+            }
+            List<Task> actual = tasks.findOverlapping(from, to);
+            assertEquals(expected.size(), actual.size());
+            assertTrue(actual.containsAll(expected));
+        }
+    }
+
+    @Test
+    public void asListAfterLaterChangesKeepsSnapshot() {
+        TaskList tasks = new TaskList(List.of(new Todo("a"), new Todo("b"), new Todo("c")));
+        List<Task> snapshot = tasks.asList();
+
+        tasks.remove(1);
+        tasks.add(new Todo("d"));
+
+        assertEquals("[a, b, c]", describe(snapshot));
+        assertEquals("[a, c, d]", describe(tasks.asList()));
+    }
+
+    @Test
+    public void addAndRemoveRandomPositionsMatchesArrayList() {
+        Random random = new Random(7);
+        List<Task> initial = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            initial.add(new Todo("task " + i));
+        }
+        TaskList tasks = new TaskList(initial);
+        List<Task> expected = new ArrayList<>(initial);
+
+        for (int step = 0; step < 5000; step++) {
+            if (expected.isEmpty() || random.nextInt(3) > 0) {
+                Todo todo = new Todo("added " + step);
+                tasks.add(todo);
+                expected.add(todo);
+            } else {
+                int index = random.nextInt(expected.size());
+                assertEquals(expected.remove(index), tasks.remove(index));
+            }
+        }
+
+        assertEquals(expected.size(), tasks.size());
+        assertEquals(expected, tasks.asList());
+        for (int i = 0; i < expected.size(); i += 97) {
+            assertEquals(expected.get(i), tasks.get(i));
+        }
+    }
+
+    @Test
+    public void removeAllSmallAndLargeSelectionsMatchesArrayList() {
+        Random random = new Random(11);
+        List<Task> initial = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            initial.add(new Todo("task " + i));
+        }
+        TaskList tasks = new TaskList(initial);
+        List<Task> expected = new ArrayList<>(initial);
+
+        // a handful of tasks is removed one by one, most of the list in one pass
+        for (int percent : new int[] {1, 60, 5, 90}) {
+            List<Integer> selected = new ArrayList<>();
+            for (int i = 0; i < expected.size(); i++) {
+                if (random.nextInt(100) < percent) {
+                    selected.add(i);
+                }
+            }
+            int[] indices = selected.stream().mapToInt(Integer::intValue).toArray();
+            List<Task> expectedRemoved = new ArrayList<>();
+            for (int i = indices.length - 1; i >= 0; i--) {
+                expectedRemoved.add(0, expected.remove(indices[i]));
+            }
+
+            assertEquals(expectedRemoved, tasks.removeAll(indices));
+            assertEquals(expected, tasks.asList());
+        }
+        assertEquals(describe(expected), describe(tasks.find("task")));
+    }
+
+    @Test
+    public void findByIdAfterAddsAndRemovalsFindsTaskAndPosition() {
+        Random random = new Random(13);
+        TaskList tasks = new TaskList();
+        List<Task> expected = new ArrayList<>();
+        for (int step = 0; step < 5000; step++) {
+            if (expected.isEmpty() || random.nextInt(5) > 1) {
+                Todo todo = new Todo("task " + step);
+                tasks.add(todo);
+                expected.add(todo);
+            } else {
+                tasks.remove(random.nextInt(expected.size()));
+                expected.clear();
+                expected.addAll(tasks.asList());
+            }
+        }
+
+        long previousId = 0;
+        for (int i = 0; i < expected.size(); i++) {
+            Task task = expected.get(i);
+            assertTrue(task.getId() > previousId);
+            assertEquals(task, tasks.findById(task.getId()));
+            assertEquals(i, tasks.indexOfId(task.getId()));
+            previousId = task.getId();
+        }
+        assertEquals(null, tasks.findById(previousId + 1));
+        assertEquals(-1, tasks.indexOfId(previousId + 1));
+    }
+
+    @Test
+    public void sortedViewsAfterAddsRemovalsAndMarksMatchSortedScan() {
+        Random random = new Random(17);
+        TaskList tasks = new TaskList();
+        LocalDate base = LocalDate.of(2026, 1, 1);
+        for (int step = 0; step < 3000; step++) {
+            int action = random.nextInt(10);
+            if (tasks.isEmpty() || action < 5) {
+                LocalDate day = base.plusDays(random.nextInt(60));
+                switch (random.nextInt(4)) {
+                case 0:
+                    tasks.add(new Todo("todo " + step));
+                    break;
+                case 1:
+                    tasks.add(new Deadline("deadline " + step, day));
+                    break;
+                case 2:
+                    tasks.add(new Event("event " + step, day.atTime(9, 0), day.atTime(10, 0)));
+                    break;
+                default:
+                    tasks.add(new DoWithinPeriodTask("period " + step, day, day.plusDays(random.nextInt(5))));
+                    break;
+                }
+            } else if (action < 7) {
+                tasks.remove(random.nextInt(tasks.size()));
+            } else if (action < 9) {
+                tasks.markAll(new int[] {random.nextInt(tasks.size())});
+            } else {
+                tasks.unmarkAll(new int[] {random.nextInt(tasks.size())});
+            }
+        }
+
+        List<Task> undone = tasks.asList().stream().filter(t -> !t.isDone()).collect(Collectors.toList());
+        assertEquals(undone, tasks.getUndone(0, tasks.size()));
+        assertEquals(undone.subList(5, 15), tasks.getUndone(5, 10));
+
+        List<Task> byDue = tasks.asList().stream()
+                .filter(t -> t instanceof Deadline || t instanceof DoWithinPeriodTask)
+                .sorted(Comparator.comparing(TaskListTest::dueDateOf))
+                .collect(Collectors.toList());
+        assertEquals(byDue.size(), tasks.countWithDueDate());
+        assertEquals(byDue, tasks.getByDueDate(0, byDue.size()));
+        assertEquals(byDue.subList(byDue.size() - 3, byDue.size()), tasks.getByDueDate(byDue.size() - 3, 10));
+
+        List<Task> dated = tasks.getByStart(0, tasks.size());
+        assertEquals(tasks.countDated(), dated.size());
+        for (int i = 1; i < dated.size(); i++) {
+            assertFalse(startOf(dated.get(i)).isBefore(startOf(dated.get(i - 1))));
+        }
+    }
+
+    private static LocalDate dueDateOf(Task task) {
+        return (task instanceof Deadline) ? ((Deadline) task).getBy() : ((DoWithinPeriodTask) task).getEnd();
+    }
+
+    private static LocalDateTime startOf(Task task) {
+        if (task instanceof Event) {
+            return ((Event) task).getFrom();
+        }
+        if (task instanceof Deadline) {
+            return ((Deadline) task).getBy().atStartOfDay();
+        }
+        return ((DoWithinPeriodTask) task).getStart().atStartOfDay();
+    }
+
+    @Test
+    public void findDoneIndicesSomeMarkedReturnsTheirPositions() {
+        TaskList tasks = new TaskList();
+        for (int i = 0; i < 6; i++) {
+            Todo todo = new Todo("task " + i);
+            if (i % 3 == 1) {
+                todo.mark();
+            }
+            tasks.add(todo);
+        }
+
+        assertEquals(List.of(1, 4), Arrays.stream(tasks.findDoneIndices()).boxed().collect(Collectors.toList()));
+    }
+
+    private static String describe(List<Task> tasks) {
+        List<String> descriptions = new ArrayList<>();
+        for (Task task : tasks) {
+            descriptions.add(task.getDescription());
+        }
+        return descriptions.toString();
+    }
+}
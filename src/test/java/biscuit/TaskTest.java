@@ -0,0 +1,52 @@
+package biscuit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the display form of {@link Task} and its subclasses.
+ */
+public class TaskTest {
+
+    @Test
+    public void toStringUnchangedTaskReturnsCachedString() {
+        Task deadline = new Deadline("return book", LocalDate.of(2026, 1, 20));
+
+        assertEquals("[D][ ] return book (by: Jan 20 2026)", deadline.toString());
+        assertSame(deadline.toString(), deadline.toString());
+    }
+
+    @Test
+    public void toStringAfterMarkAndUnmarkRendersNewDoneState() {
+        Task event = new Event("dinner", LocalDateTime.of(2026, 1, 21, 19, 0), LocalDateTime.of(2026, 1, 21, 21, 0));
+        String undone = event.toString();
+
+        event.mark();
+        assertEquals("[E][X] dinner (from: Jan 21 2026 19:00 to: Jan 21 2026 21:00)", event.toString());
+
+        event.unmark();
+        assertEquals(undone, event.toString());
+        assertEquals("1. [E][ ] dinner (from: Jan 21 2026 19:00 to: Jan 21 2026 21:00)",
+                event.appendTo(new StringBuilder("1. ")).toString());
+    }
+
+    @Test
+    public void toStringMarkedWhileRenderingRendersNewStateNextTime() {
+        Task task = new Todo("read book") {
+            @Override
+            protected String render(boolean isDone) {
+                // another thread marks the task while it is being rendered
+                mark();
+                return super.render(isDone);
+            }
+        };
+
+        assertEquals("[T][ ] read book", task.toString());
+        assertEquals("[T][X] read book", task.toString());
+    }
+}
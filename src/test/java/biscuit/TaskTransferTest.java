@@ -0,0 +1,180 @@
+package biscuit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Unit tests for {@link TaskTransfer}, {@link IcsCodec} and {@link CsvCodec}.
+ */
+public class TaskTransferTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static List<Task> sampleTasks() {
+        Todo todo = new Todo("read, \"annotated\" book");
+        todo.mark();
+        Event event = new Event("team meeting; weekly",
+                LocalDateTime.of(2026, 3, 2, 14, 0), LocalDateTime.of(2026, 3, 2, 15, 30));
+        event.mark();
+        LocalDateTime noon = LocalDateTime.of(2026, 3, 3, 12, 0);
+        return List.of(todo, new Deadline("essay", LocalDate.of(2026, 3, 10)), event, new Event("alarm", noon, noon),
+                new DoWithinPeriodTask("return library books", LocalDate.of(2026, 3, 1), LocalDate.of(2026, 3, 7)),
+                new Todo("a long description that needs folding because it is longer than seventy-five bytes \u00e9"));
+    }
+
+    @Test
+    public void exportThenImportIcsRoundTrips() throws Exception {
+        assertRoundTrip(tempDir.resolve("tasks.ics"));
+    }
+
+    @Test
+    public void exportThenImportCsvRoundTrips() throws Exception {
+        assertRoundTrip(tempDir.resolve("tasks.csv"));
+    }
+
+    private static void assertRoundTrip(Path path) throws Exception {
+        List<Task> tasks = sampleTasks();
+        TaskTransfer.exportTasks(tasks, path);
+        TaskTransfer.ImportResult result = TaskTransfer.importTasks(path);
+
+        assertEquals(0, result.getSkippedCount());
+        assertEquals(tasks.size(), result.getTasks().size());
+        for (int i = 0; i < tasks.size(); i++) {
+            assertEquals(tasks.get(i).toString(), result.getTasks().get(i).toString());
+        }
+    }
+
+    @Test
+    public void importTasksIcsUnfoldsLinesAndSkipsBadComponents() throws Exception {
+        Path path = tempDir.resolve("calendar.ics");
+        Files.writeString(path, String.join("\r\n",
+                "BEGIN:VCALENDAR",
+                "BEGIN:VEVENT",
+                "SUMMARY:Project ",
+                " review",
+                "DTSTART:20260302T140000",
+                "DURATION:PT1H",
+                "BEGIN:VALARM",
+                "SUMMARY:alarm",
+                "END:VALARM",
+                "END:VEVENT",
+                "BEGIN:VEVENT",
+                "SUMMARY:broken",
+                "DTSTART:2026-03-02",
+                "END:VEVENT",
+                "BEGIN:VTODO",
+                "SUMMARY:pay rent",
+                "DUE;VALUE=DATE:20260401",
+                "STATUS:COMPLETED",
+                "END:VTODO",
+                "END:VCALENDAR"), StandardCharsets.UTF_8);
+
+        TaskTransfer.ImportResult result = TaskTransfer.importTasks(path);
+
+        assertEquals(2, result.getTasks().size());
+        assertEquals("[E][ ] Project review (from: Mar 02 2026 14:00 to: Mar 02 2026 15:00)",
+                result.getTasks().get(0).toString());
+        assertEquals("[D][X] pay rent (by: Apr 01 2026)", result.getTasks().get(1).toString());
+        assertEquals(1, result.getSkippedCount());
+        assertEquals("Line 11: Invalid DTSTART date-time: 2026-03-02", result.getFirstError());
+    }
+
+    @Test
+    public void importTasksDateOutOfRangeSkipsOnlyThatRecord() throws Exception {
+        Path path = tempDir.resolve("calendar.ics");
+        Files.writeString(path, String.join("\r\n",
+                "BEGIN:VEVENT",
+                "SUMMARY:forever",
+                "DTSTART:20260302T140000",
+                "DURATION:P999999999999W",
+                "END:VEVENT",
+                "BEGIN:VTODO",
+                "SUMMARY:pay rent",
+                "END:VTODO"), StandardCharsets.UTF_8);
+
+        TaskTransfer.ImportResult result = TaskTransfer.importTasks(path);
+
+        assertEquals(1, result.getTasks().size());
+        assertEquals(1, result.getSkippedCount());
+        assertTrue(result.getFirstError().startsWith("Line 1: Invalid record: "));
+    }
+
+    @Test
+    public void importTasksCsvMapsHeaderAndSkipsBadRows() throws Exception {
+        Path path = tempDir.resolve("tasks.csv");
+        Files.writeString(path, String.join("\n",
+                "Description,Type,By,Notes",
+                "\"buy milk,",
+                "eggs\",todo,,x",
+                "",
+                "essay,deadline,2026-13-01,",
+                "report,d,2026-03-10,"), StandardCharsets.UTF_8);
+
+        TaskTransfer.ImportResult result = TaskTransfer.importTasks(path);
+
+        assertEquals(2, result.getTasks().size());
+        assertEquals("[T][ ] buy milk, eggs", result.getTasks().get(0).toString());
+        assertEquals("[D][ ] report (by: Mar 10 2026)", result.getTasks().get(1).toString());
+        assertEquals(1, result.getSkippedCount());
+        assertTrue(result.getFirstError().startsWith("Line 5: Invalid by date"));
+    }
+
+    @Test
+    public void importTasksManyRecordsKeepsFileOrder() throws Exception {
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 10_000; i++) {
+            csv.append("todo,false,task ").append(i).append('\n');
+        }
+        Path path = tempDir.resolve("many.csv");
+        Files.writeString(path, csv, StandardCharsets.UTF_8);
+
+        TaskTransfer.ImportResult result = TaskTransfer.importTasks(path);
+
+        assertEquals(10_000, result.getTasks().size());
+        assertNull(result.getFirstError());
+        for (int i = 0; i < 10_000; i++) {
+            assertEquals("task " + i, result.getTasks().get(i).getDescription());
+        }
+    }
+
+    @Test
+    public void importTasksUnsupportedOrMissingFileThrows() {
+        BiscuitException unsupported = assertThrows(BiscuitException.class, () ->
+                TaskTransfer.importTasks(tempDir.resolve("tasks.txt")));
+        assertEquals("Unsupported file type: use a .ics or .csv file.", unsupported.getMessage());
+        BiscuitException missing = assertThrows(BiscuitException.class, () ->
+                TaskTransfer.importTasks(tempDir.resolve("missing.csv")));
+        assertTrue(missing.getMessage().startsWith("File not found: "));
+    }
+
+    @Test
+    public void addAllAppendsInOrderWithNewIds() {
+        TaskList tasks = new TaskList(new ArrayList<>(List.of(new Todo("first"))));
+        List<Task> added = sampleTasks();
+
+        tasks.addAll(added);
+
+        assertEquals(7, tasks.size());
+        for (int i = 0; i < added.size(); i++) {
+            assertEquals(added.get(i), tasks.get(i + 1));
+            assertEquals(i + 2, tasks.get(i + 1).getId());
+        }
+        assertEquals(4, tasks.indexOfId(5));
+        assertEquals(6, tasks.indexOfId(7));
+        assertEquals(1, tasks.find("essay").size());
+    }
+}
@@ -0,0 +1,80 @@
+package biscuit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Unit tests for {@link Workspaces}.
+ */
+public class WorkspacesTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void acquireDifferentUsersKeepsSeparateShardedFiles() throws Exception {
+        try (Workspaces workspaces = new Workspaces(tempDir, 8)) {
+            workspaces.acquire("alice").execute("todo alice task");
+            workspaces.acquire("Bob").execute("todo bob task");
+
+            assertSame(workspaces.acquire("ALICE"), workspaces.acquire("alice"));
+            assertTrue(workspaces.acquire("bob").execute("list").contains("bob task"));
+            assertFalse(workspaces.acquire("bob").execute("list").contains("alice task"));
+
+            Path alicePath = workspaces.getDataPath("alice");
+            assertEquals(tempDir, alicePath.getParent().getParent().getParent());
+            assertEquals("alice", alicePath.getParent().getFileName().toString());
+            assertEquals(2, alicePath.getParent().getParent().getFileName().toString().length());
+        }
+    }
+
+    @Test
+    public void releaseOverCapacityEvictsLeastRecentlyUsedIdleList() throws Exception {
+        Workspaces workspaces = new Workspaces(tempDir, 2);
+        Biscuit first = workspaces.acquire("a");
+        first.execute("todo from a");
+        workspaces.release("a");
+        workspaces.acquire("b");
+        workspaces.release("b");
+        workspaces.acquire("c");
+        workspaces.release("c");
+
+        assertEquals(List.of("b", "c"), workspaces.getLoadedUsers());
+        Biscuit reloaded = workspaces.acquire("a");
+        assertNotSame(first, reloaded);
+        assertTrue(reloaded.execute("list").contains("from a"));
+        workspaces.close();
+    }
+
+    @Test
+    public void releaseHeldListsAreNeverEvicted() throws Exception {
+        Workspaces workspaces = new Workspaces(tempDir, 1);
+        workspaces.acquire("a");
+        workspaces.acquire("b");
+        workspaces.acquire("c");
+        workspaces.release("c");
+
+        assertEquals(List.of("a", "b"), workspaces.getLoadedUsers());
+        workspaces.close();
+        assertEquals(0, workspaces.getLoadedCount());
+    }
+
+    @Test
+    public void acquireInvalidNameThrowsBiscuitException() {
+        Workspaces workspaces = new Workspaces(tempDir, 1);
+        for (String name : new String[] {"", "..", "a/b", "a b", "x".repeat(65), "../etc"}) {
+            assertThrows(BiscuitException.class, () -> workspaces.acquire(name));
+        }
+        assertEquals(0, workspaces.getLoadedCount());
+    }
+}